@@ -0,0 +1,13 @@
+package com.ayd.library.configs;
+
+/**
+ * Media types of the streamed bulk endpoints that Spring's MediaType does not define.
+ */
+public final class MediaTypes {
+
+    public static final String CSV = "text/csv";
+    public static final String NDJSON = "application/x-ndjson";
+
+    private MediaTypes() {
+    }
+}
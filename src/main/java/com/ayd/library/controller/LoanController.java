@@ -1,27 +1,39 @@
 package com.ayd.library.controller;
 
 
+import com.ayd.library.configs.MediaTypes;
+import com.ayd.library.dto.LoanBatchRequestDto;
+import com.ayd.library.dto.LoanBatchResultDto;
+import com.ayd.library.dto.LoanPageDto;
 import com.ayd.library.dto.LoanRequestDto;
 import com.ayd.library.dto.LoanResponseDto;
+import com.ayd.library.dto.LoanReturnRequestDto;
+import com.ayd.library.dto.LoanReturnResultDto;
 import com.ayd.library.exception.*;
 import com.ayd.library.model.Loan;
+import com.ayd.library.service.LoanReturnService;
 import com.ayd.library.service.LoanService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
 @RequestMapping("/loans")
-@PreAuthorize("hasAuthority('LIBRARIAN') or hasAuthority('STUDENT')")
 public class LoanController {
 
     private final LoanService loanService;
+    private final LoanReturnService loanReturnService;
 
-    public LoanController(LoanService loanService) {
+    public LoanController(LoanService loanService, LoanReturnService loanReturnService) {
         this.loanService = loanService;
+        this.loanReturnService = loanReturnService;
     }
 
     @PostMapping
@@ -29,10 +41,37 @@ public class LoanController {
         return ResponseEntity.ok(loanService.createLoan(loanRequestDto));
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<LoanBatchResultDto> createLoans(@RequestBody LoanBatchRequestDto request) throws ServiceException {
+        return ResponseEntity.ok(loanService.createLoans(request));
+    }
+
+    @PostMapping(value = "/return", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<LoanReturnResultDto> returnLoans(@RequestBody LoanReturnRequestDto request) throws InvalidRequestException {
+        return ResponseEntity.ok(loanReturnService.returnLoans(request));
+    }
+
+    @PostMapping(value = "/return", consumes = MediaTypes.NDJSON)
+    public ResponseEntity<LoanReturnResultDto> returnLoans(InputStream body) throws IOException {
+        return ResponseEntity.ok(loanReturnService.returnLoans(body));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<Loan> getLoanById(@PathVariable Long id) throws NotFoundException {
         return ResponseEntity.ok(loanService.getLoanById(id));
     }
+    @GetMapping("/page")
+    public ResponseEntity<LoanPageDto> getLoanPage(@RequestParam(required = false) String cursor,
+                                                   @RequestParam(required = false) String status,
+                                                   @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                   @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                   @RequestParam(required = false) String carnet,
+                                                   @RequestParam(required = false) String bookCode,
+                                                   @RequestParam(required = false) Integer size) throws InvalidRequestException {
+        return ResponseEntity.ok(loanService.getLoanPage(cursor, status, from, to, carnet, bookCode, size));
+    }
+
+    @Deprecated
     @GetMapping
     public ResponseEntity<List<LoanResponseDto>> getAllLoans() {
         return ResponseEntity.ok(loanService.getAllLoans());
@@ -8,14 +8,12 @@ import com.ayd.library.model.Reservation;
 import com.ayd.library.service.ReservationService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
 
 @RestController
 @RequestMapping("/reservations")
-@PreAuthorize("hasAuthority('LIBRARIAN') or hasAuthority('STUDENT')")
 public class ReservationController {
 
     private final ReservationService reservationService;
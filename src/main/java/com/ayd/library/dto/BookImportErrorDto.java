@@ -0,0 +1,4 @@
+package com.ayd.library.dto;
+
+public record BookImportErrorDto(long line, String code, String message) {
+}
@@ -0,0 +1,7 @@
+package com.ayd.library.dto;
+
+import java.util.List;
+
+public record BookImportResultDto(long rows, long imported, long failed, long elapsedMillis, long rowsPerSecond,
+                                  List<BookImportErrorDto> errors) {
+}
@@ -0,0 +1,6 @@
+package com.ayd.library.dto;
+
+import java.util.List;
+
+public record BookPageDto(List<BookSummaryDto> items, String next) {
+}
@@ -0,0 +1,4 @@
+package com.ayd.library.dto;
+
+public record BookSuggestionDto(String text, String type, int books) {
+}
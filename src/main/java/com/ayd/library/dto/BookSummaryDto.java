@@ -0,0 +1,10 @@
+package com.ayd.library.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.LocalDate;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BookSummaryDto(String code, String title, String author, LocalDate publicationDate,
+                             String publisher, Integer availableCopies) {
+}
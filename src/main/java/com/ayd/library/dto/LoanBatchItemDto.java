@@ -0,0 +1,4 @@
+package com.ayd.library.dto;
+
+public record LoanBatchItemDto(String bookCode, Long loanId, String error) {
+}
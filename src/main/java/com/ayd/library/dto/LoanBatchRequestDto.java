@@ -0,0 +1,9 @@
+package com.ayd.library.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+public record LoanBatchRequestDto(String carnet, List<String> bookCodes, LocalDate loanDate, LocalDate returnDate,
+                                  BigDecimal totalDue) {
+}
@@ -0,0 +1,6 @@
+package com.ayd.library.dto;
+
+import java.util.List;
+
+public record LoanPageDto(List<LoanResponseDto> items, String next) {
+}
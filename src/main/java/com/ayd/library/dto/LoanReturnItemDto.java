@@ -0,0 +1,7 @@
+package com.ayd.library.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record LoanReturnItemDto(Long loanId, String bookCode, String error) {
+}
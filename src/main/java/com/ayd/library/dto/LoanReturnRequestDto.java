@@ -0,0 +1,6 @@
+package com.ayd.library.dto;
+
+import java.util.List;
+
+public record LoanReturnRequestDto(List<Long> loanIds, List<String> bookCodes) {
+}
@@ -0,0 +1,7 @@
+package com.ayd.library.dto;
+
+import java.util.List;
+
+public record LoanReturnResultDto(long items, long returned, long failed, long elapsedMillis,
+                                  List<LoanReturnItemDto> results) {
+}
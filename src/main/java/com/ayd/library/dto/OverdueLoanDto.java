@@ -0,0 +1,6 @@
+package com.ayd.library.dto;
+
+import java.time.LocalDate;
+
+public record OverdueLoanDto(Long id, LocalDate returnDate) {
+}
@@ -0,0 +1,4 @@
+package com.ayd.library.dto;
+
+public record StudentLoanCountDto(String carnet, Long count) {
+}
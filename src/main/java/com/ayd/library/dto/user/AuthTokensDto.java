@@ -0,0 +1,4 @@
+package com.ayd.library.dto.user;
+
+public record AuthTokensDto(String accessToken, String refreshToken) {
+}
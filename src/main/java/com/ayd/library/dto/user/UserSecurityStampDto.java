@@ -0,0 +1,8 @@
+package com.ayd.library.dto.user;
+
+public record UserSecurityStampDto(Short status, Integer tokenVersion) {
+
+    public boolean accepts(Integer version) {
+        return status != null && status == 1 && tokenVersion.equals(version);
+    }
+}
@@ -0,0 +1,28 @@
+package com.ayd.library.enums;
+
+import java.time.LocalDate;
+
+public enum BookField {
+    CODE("code", String.class),
+    TITLE("title", String.class),
+    AUTHOR("author", String.class),
+    PUBLICATION_DATE("publicationDate", LocalDate.class),
+    PUBLISHER("publisher", String.class),
+    AVAILABLE_COPIES("availableCopies", Integer.class);
+
+    final String property;
+    final Class<?> type;
+    BookField(String property, Class<?> type) {
+        this.property = property;
+        this.type = type;
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    public Class<?> getType() {
+        return type;
+    }
+
+}
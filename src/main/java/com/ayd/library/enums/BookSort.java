@@ -0,0 +1,17 @@
+package com.ayd.library.enums;
+
+public enum BookSort {
+    CODE("code"),
+    TITLE("title"),
+    AUTHOR("author");
+
+    final String property;
+    BookSort(String property) {
+        this.property = property;
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+}
@@ -0,0 +1,12 @@
+package com.ayd.library.enums;
+
+/**
+ * Whether the copy taken or given back by a loan is already reflected in {@code Book.availableCopies}.
+ * Loans created before inventory was tracked stay UNTRACKED and never move the stock.
+ */
+public enum InventoryState {
+    UNTRACKED,
+    CHECKOUT_PENDING,
+    APPLIED,
+    RETURN_PENDING
+}
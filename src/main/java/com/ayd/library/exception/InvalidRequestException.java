@@ -0,0 +1,11 @@
+package com.ayd.library.exception;
+
+public class InvalidRequestException extends ServiceException{
+    public InvalidRequestException(){
+
+    }
+
+    public InvalidRequestException(String message){
+        super(message);
+    }
+}
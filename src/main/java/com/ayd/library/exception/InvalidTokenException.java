@@ -0,0 +1,11 @@
+package com.ayd.library.exception;
+
+public class InvalidTokenException extends ServiceException{
+    public InvalidTokenException(){
+
+    }
+
+    public InvalidTokenException(String message){
+        super(message);
+    }
+}
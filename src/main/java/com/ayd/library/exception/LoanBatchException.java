@@ -0,0 +1,16 @@
+package com.ayd.library.exception;
+
+import com.ayd.library.dto.LoanBatchResultDto;
+
+public class LoanBatchException extends ServiceException{
+    private final LoanBatchResultDto result;
+
+    public LoanBatchException(String message, LoanBatchResultDto result){
+        super(message);
+        this.result = result;
+    }
+
+    public LoanBatchResultDto getResult() {
+        return result;
+    }
+}
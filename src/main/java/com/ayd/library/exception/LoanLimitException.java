@@ -0,0 +1,11 @@
+package com.ayd.library.exception;
+
+public class LoanLimitException extends ServiceException{
+    public LoanLimitException(){
+
+    }
+
+    public LoanLimitException(String message){
+        super(message);
+    }
+}
@@ -0,0 +1,14 @@
+package com.ayd.library.exception;
+
+public class TooManyRequestsException extends ServiceException{
+    private final long retryAfterSeconds;
+
+    public TooManyRequestsException(String message, long retryAfterSeconds){
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,26 @@
+package com.ayd.library.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "JobCheckpoint")
+@Getter @Setter
+@AllArgsConstructor @NoArgsConstructor
+@Builder
+public class JobCheckpoint {
+    @Id
+    @Column(name = "jobName", nullable = false, length = 100)
+    private String jobName;
+
+    @Column(name = "lastId", nullable = false)
+    private Long lastId;
+
+    @Column(name = "updatedAt", nullable = false)
+    private LocalDateTime updatedAt;
+}
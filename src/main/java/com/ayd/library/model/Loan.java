@@ -1,7 +1,9 @@
 package com.ayd.library.model;
 
+import com.ayd.library.enums.InventoryState;
 import com.fasterxml.jackson.annotation.JsonBackReference;
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
@@ -38,6 +40,16 @@ public class Loan {
     @Column(name = "totalDue", precision = 10, scale = 2)
     private BigDecimal totalDue;
 
+    @Column(name = "fine", nullable = false, precision = 10, scale = 2, updatable = false)
+    @Builder.Default
+    private BigDecimal fine = BigDecimal.ZERO;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "inventoryState", nullable = false, length = 20, updatable = false)
+    @Builder.Default
+    @JsonIgnore
+    private InventoryState inventoryState = InventoryState.UNTRACKED;
+
 
     @NotNull
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
@@ -0,0 +1,34 @@
+package com.ayd.library.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+@Entity
+@Table(name = "RefreshToken")
+@Getter @Setter
+@AllArgsConstructor @NoArgsConstructor
+@Builder
+public class RefreshToken {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id", nullable = false)
+    private Long id;
+
+    @Column(name = "tokenHash", nullable = false, unique = true, length = 64)
+    private String tokenHash;
+
+    @Column(name = "familyId", nullable = false, length = 36)
+    private String familyId;
+
+    @Column(name = "userId", nullable = false)
+    private Long userId;
+
+    @Column(name = "expiresAt", nullable = false)
+    private Long expiresAt;
+
+    @Column(name = "used", nullable = false)
+    private Boolean used;
+
+    @Column(name = "revoked", nullable = false)
+    private Boolean revoked;
+}
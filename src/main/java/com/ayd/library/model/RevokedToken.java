@@ -0,0 +1,21 @@
+package com.ayd.library.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.*;
+
+@Entity
+@Table(name = "RevokedToken")
+@Getter @Setter
+@AllArgsConstructor @NoArgsConstructor
+@Builder
+public class RevokedToken {
+    @Id
+    @Column(name = "jti", nullable = false, length = 64)
+    private String jti;
+
+    @Column(name = "expiresAt", nullable = false)
+    private Long expiresAt;
+}
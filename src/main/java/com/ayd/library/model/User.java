@@ -38,4 +38,8 @@ public class User {
     @Column(name = "status")
     private Short status;
 
+    @Builder.Default
+    @Column(name = "tokenVersion", nullable = false)
+    private Integer tokenVersion = 0;
+
 }
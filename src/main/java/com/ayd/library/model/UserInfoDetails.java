@@ -12,17 +12,27 @@ import java.util.List;
 @Getter
 public class UserInfoDetails implements UserDetails {
 
+    private final Long userId;
     private final String username;
     private final String password;
     private final Rol rol;
     private final Boolean status;
 
     public UserInfoDetails(User user) {
+        userId = user.getUserId();
         username = user.getUsername();
         password = user.getPassword();
         rol = user.getRole();
         status = user.getStatus() == 1;
     }
+
+    public UserInfoDetails(Long userId, String username, Rol rol) {
+        this.userId = userId;
+        this.username = username;
+        this.password = null;
+        this.rol = rol;
+        this.status = true;
+    }
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         return List.of(new SimpleGrantedAuthority(rol.name()));
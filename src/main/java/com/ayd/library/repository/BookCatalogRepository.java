@@ -0,0 +1,19 @@
+package com.ayd.library.repository;
+
+import com.ayd.library.dto.BookSummaryDto;
+import com.ayd.library.enums.BookField;
+import com.ayd.library.enums.BookSort;
+
+import java.util.List;
+import java.util.Set;
+
+public interface BookCatalogRepository {
+
+    /**
+     * Active books ordered by the sort key and then by code, starting right after the given
+     * (key, code) position. A null afterCode starts from the first book. Only the requested
+     * fields are read; the others are left null in the summaries.
+     */
+    List<BookSummaryDto> findActivePage(BookSort sort, boolean descending, String afterKey, String afterCode,
+                                        int limit, Set<BookField> fields);
+}
@@ -0,0 +1,64 @@
+package com.ayd.library.repository;
+
+import com.ayd.library.dto.BookSummaryDto;
+import com.ayd.library.enums.BookField;
+import com.ayd.library.enums.BookSort;
+import com.ayd.library.model.Book;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+import java.util.Set;
+
+@RequiredArgsConstructor
+public class BookCatalogRepositoryImpl implements BookCatalogRepository {
+
+    private final EntityManager entityManager;
+
+    @Override
+    public List<BookSummaryDto> findActivePage(BookSort sort, boolean descending, String afterKey, String afterCode,
+                                               int limit, Set<BookField> fields) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        var query = cb.createQuery(BookSummaryDto.class);
+        var book = query.from(Book.class);
+        Expression<String> code = book.get("code");
+        Expression<String> key = book.get(sort.getProperty());
+
+        Predicate where = cb.isTrue(book.get("status"));
+        if (afterCode != null) {
+            Predicate afterPosition = after(cb, code, afterCode, descending);
+            if (sort != BookSort.CODE)
+                afterPosition = cb.or(after(cb, key, afterKey, descending),
+                        cb.and(cb.equal(key, afterKey), afterPosition));
+            where = cb.and(where, afterPosition);
+        }
+
+        List<Order> orderBy = sort == BookSort.CODE
+                ? List.of(order(cb, code, descending))
+                : List.of(order(cb, key, descending), order(cb, code, descending));
+        query.select(summary(cb, book, fields)).where(where).orderBy(orderBy);
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+
+    private static Selection<BookSummaryDto> summary(CriteriaBuilder cb, Root<Book> book, Set<BookField> fields) {
+        BookField[] all = BookField.values();
+        Selection<?>[] columns = new Selection<?>[all.length];
+        for (int i = 0; i < all.length; i++)
+            columns[i] = fields.contains(all[i]) ? book.get(all[i].getProperty()) : cb.nullLiteral(all[i].getType());
+        return cb.construct(BookSummaryDto.class, columns);
+    }
+
+    private static Predicate after(CriteriaBuilder cb, Expression<String> path, String value, boolean descending) {
+        return descending ? cb.lessThan(path, value) : cb.greaterThan(path, value);
+    }
+
+    private static Order order(CriteriaBuilder cb, Expression<String> path, boolean descending) {
+        return descending ? cb.desc(path) : cb.asc(path);
+    }
+}
@@ -1,10 +1,33 @@
 package com.ayd.library.repository;
 
+import com.ayd.library.dto.BookSummaryDto;
 import com.ayd.library.model.Book;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
-public interface BookRepository extends JpaRepository<Book, String> {
+public interface BookRepository extends JpaRepository<Book, String>, BookCatalogRepository {
     List<Book> findByStatus(Boolean status);
-}
\ No newline at end of file
+
+    @Query("SELECT new com.ayd.library.dto.BookSummaryDto(b.code, b.title, b.author, b.publicationDate, b.publisher, b.availableCopies) " +
+            "FROM Book b WHERE b.code IN :codes AND b.status = true")
+    List<BookSummaryDto> findSummariesByCodeIn(@Param("codes") List<String> codes);
+
+    @Query("SELECT b.code FROM Book b WHERE b.code IN :codes")
+    List<String> findExistingCodes(@Param("codes") Collection<String> codes);
+
+    @Modifying
+    @Query("UPDATE Book b SET b.availableCopies = b.availableCopies + :delta WHERE b.code = :code")
+    int adjustAvailableCopies(@Param("code") String code, @Param("delta") int delta);
+
+    @Query("SELECT b.availableCopies " +
+            "- (SELECT COUNT(l) FROM Loan l WHERE l.bookCode = b AND l.inventoryState = com.ayd.library.enums.InventoryState.CHECKOUT_PENDING) " +
+            "+ (SELECT COUNT(l) FROM Loan l WHERE l.bookCode = b AND l.inventoryState = com.ayd.library.enums.InventoryState.RETURN_PENDING) " +
+            "FROM Book b WHERE b.code = :code")
+    Optional<Number> findEffectiveAvailableCopies(@Param("code") String code);
+}
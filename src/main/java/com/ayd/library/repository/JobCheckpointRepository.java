@@ -0,0 +1,7 @@
+package com.ayd.library.repository;
+
+import com.ayd.library.model.JobCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface JobCheckpointRepository extends JpaRepository<JobCheckpoint, String> {
+}
@@ -0,0 +1,17 @@
+package com.ayd.library.repository;
+
+import com.ayd.library.dto.LoanResponseDto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface LoanQueryRepository {
+
+    /**
+     * Loans newest first, ordered by loanDate and then by id, starting right after the given
+     * (loanDate, id) position. A null afterId starts from the newest loan. Null filters are not applied;
+     * from and to are inclusive.
+     */
+    List<LoanResponseDto> findPage(String status, LocalDate from, LocalDate to, String carnet, String bookCode,
+                                   LocalDate afterDate, Long afterId, int limit);
+}
@@ -0,0 +1,54 @@
+package com.ayd.library.repository;
+
+import com.ayd.library.dto.LoanResponseDto;
+import com.ayd.library.model.Loan;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import lombok.RequiredArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class LoanQueryRepositoryImpl implements LoanQueryRepository {
+
+    private final EntityManager entityManager;
+
+    @Override
+    public List<LoanResponseDto> findPage(String status, LocalDate from, LocalDate to, String carnet, String bookCode,
+                                          LocalDate afterDate, Long afterId, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        var query = cb.createQuery(LoanResponseDto.class);
+        var loan = query.from(Loan.class);
+        Join<Object, Object> book = loan.join("bookCode");
+        Path<LocalDate> loanDate = loan.get("loanDate");
+        Path<Long> id = loan.get("id");
+        // student and book filters compare the foreign key columns of Loan, so they stay on its indexes
+        Path<String> studentId = loan.get("student").get("carnet");
+
+        List<Predicate> where = new ArrayList<>();
+        if (status != null)
+            where.add(cb.equal(loan.get("status"), status));
+        if (from != null)
+            where.add(cb.greaterThanOrEqualTo(loanDate, from));
+        if (to != null)
+            where.add(cb.lessThanOrEqualTo(loanDate, to));
+        if (carnet != null)
+            where.add(cb.equal(studentId, carnet));
+        if (bookCode != null)
+            where.add(cb.equal(loan.get("bookCode").get("code"), bookCode));
+        if (afterId != null)
+            where.add(cb.or(cb.lessThan(loanDate, afterDate),
+                    cb.and(cb.equal(loanDate, afterDate), cb.lessThan(id, afterId))));
+
+        query.select(cb.construct(LoanResponseDto.class, id, studentId, book.get("title"), loanDate,
+                        loan.get("returnDate"), loan.get("status"), loan.get("totalDue")))
+                .where(where.toArray(Predicate[]::new))
+                .orderBy(cb.desc(loanDate), cb.desc(id));
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+}
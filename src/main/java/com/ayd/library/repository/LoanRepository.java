@@ -1,14 +1,25 @@
 package com.ayd.library.repository;
 
 import com.ayd.library.dto.LoanResponseDto;
+import com.ayd.library.dto.OverdueLoanDto;
+import com.ayd.library.dto.StudentLoanCountDto;
+import com.ayd.library.enums.InventoryState;
 import com.ayd.library.model.Loan;
 import com.ayd.library.model.Student;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
-public interface LoanRepository extends JpaRepository<Loan, Long> {
+public interface LoanRepository extends JpaRepository<Loan, Long>, LoanQueryRepository {
     List<Loan> findAllByStatus(String status);
 
     @Query("SELECT new com.ayd.library.dto.LoanResponseDto(l.id, s.carnet,b.title, l.loanDate, l.returnDate, l.status, l.totalDue) " +
@@ -16,4 +27,71 @@ public interface LoanRepository extends JpaRepository<Loan, Long> {
     List<LoanResponseDto> findLoanDetails();
 
     Integer countByStatusAndStudent(String status, Student student);
+
+    @Query("SELECT new com.ayd.library.dto.StudentLoanCountDto(l.student.carnet, COUNT(l)) FROM Loan l " +
+            "WHERE l.status = 'active' GROUP BY l.student.carnet")
+    List<StudentLoanCountDto> countActiveByStudent();
+
+    /**
+     * Closes an active loan. A return cancels a checkout that was not written to the book yet; otherwise
+     * the copy is queued to go back.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Loan l SET l.status = 'returned', l.inventoryState = CASE l.inventoryState " +
+            "WHEN com.ayd.library.enums.InventoryState.CHECKOUT_PENDING THEN com.ayd.library.enums.InventoryState.APPLIED " +
+            "WHEN com.ayd.library.enums.InventoryState.APPLIED THEN com.ayd.library.enums.InventoryState.RETURN_PENDING " +
+            "ELSE l.inventoryState END " +
+            "WHERE l.id = :id AND UPPER(l.status) = 'ACTIVE'")
+    int markReturned(@Param("id") Long id);
+
+    /**
+     * Same as {@link #markReturned(Long)} for many loans in one statement.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Loan l SET l.status = 'returned', l.inventoryState = CASE l.inventoryState " +
+            "WHEN com.ayd.library.enums.InventoryState.CHECKOUT_PENDING THEN com.ayd.library.enums.InventoryState.APPLIED " +
+            "WHEN com.ayd.library.enums.InventoryState.APPLIED THEN com.ayd.library.enums.InventoryState.RETURN_PENDING " +
+            "ELSE l.inventoryState END " +
+            "WHERE l.id IN :ids AND UPPER(l.status) = 'ACTIVE'")
+    int markAllReturned(@Param("ids") Collection<Long> ids);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT l FROM Loan l WHERE l.id IN :ids ORDER BY l.id")
+    List<Loan> findAllForReturn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Active loans of the given books, oldest first.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT l FROM Loan l WHERE l.bookCode.code IN :codes AND l.status = 'active' ORDER BY l.loanDate, l.id")
+    List<Loan> findActiveForReturn(@Param("codes") Collection<String> codes);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<Loan> findByInventoryStateInOrderById(Collection<InventoryState> states, Pageable pageable);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<Loan> findByBookCodeCodeAndInventoryStateIn(String code, Collection<InventoryState> states);
+
+    @Modifying
+    @Query("UPDATE Loan l SET l.inventoryState = :state WHERE l.id IN :ids")
+    int updateInventoryState(@Param("ids") Collection<Long> ids, @Param("state") InventoryState state);
+
+    @Query("SELECT new com.ayd.library.dto.OverdueLoanDto(l.id, l.returnDate) FROM Loan l " +
+            "WHERE l.status = 'active' AND l.returnDate < :asOf ORDER BY l.returnDate, l.id")
+    List<OverdueLoanDto> findOverdue(@Param("asOf") LocalDate asOf, Pageable pageable);
+
+    @Query("SELECT new com.ayd.library.dto.OverdueLoanDto(l.id, l.returnDate) FROM Loan l " +
+            "WHERE l.status = 'active' AND l.returnDate < :asOf " +
+            "AND (l.returnDate > :afterDate OR (l.returnDate = :afterDate AND l.id > :afterId)) " +
+            "ORDER BY l.returnDate, l.id")
+    List<OverdueLoanDto> findOverdueAfter(@Param("asOf") LocalDate asOf, @Param("afterDate") LocalDate afterDate,
+                                          @Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * Sets the fine of the given loans, skipping the ones that already hold it or were returned since
+     * they were read.
+     */
+    @Modifying
+    @Query("UPDATE Loan l SET l.fine = :fine WHERE l.id IN :ids AND l.status = 'active' AND l.fine <> :fine")
+    int updateFine(@Param("ids") Collection<Long> ids, @Param("fine") BigDecimal fine);
 }
\ No newline at end of file
@@ -0,0 +1,18 @@
+package com.ayd.library.repository;
+
+import com.ayd.library.model.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, String> {
+    List<RevokedToken> findAllByExpiresAtGreaterThan(Long expiresAt);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM RevokedToken r WHERE r.expiresAt <= :expiresAt")
+    int deleteExpired(Long expiresAt);
+}
@@ -1,6 +1,8 @@
 package com.ayd.library.repository;
 
+import com.ayd.library.dto.user.UserSecurityStampDto;
 import com.ayd.library.model.User;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.RepositoryDefinition;
 import org.springframework.stereotype.Repository;
@@ -16,4 +18,7 @@ public interface UserRepository extends CrudRepository<User, Long> {
     Optional<User> findByEmail(String email);
     Optional<User> findByUsernameAndUserIdNot(String username, Long userId);
     Optional<User> findByEmailAndUserIdNot(String email, Long userId);
+
+    @Query("SELECT new com.ayd.library.dto.user.UserSecurityStampDto(u.status, u.tokenVersion) FROM User u WHERE u.userId = :userId")
+    Optional<UserSecurityStampDto> findSecurityStampByUserId(Long userId);
 }
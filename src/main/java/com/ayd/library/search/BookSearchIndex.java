@@ -0,0 +1,282 @@
+package com.ayd.library.search;
+
+import com.ayd.library.dto.BookSummaryDto;
+import com.ayd.library.enums.BookField;
+import com.ayd.library.enums.BookSort;
+import com.ayd.library.exception.ServiceUnavailableException;
+import com.ayd.library.repository.BookRepository;
+import com.ayd.library.service.BookChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Inverted index over title, author and publisher of the active books, ranked with BM25. Title terms
+ * weigh three times and author terms twice a publisher term. Edits replace the book under a new doc id
+ * and leave a tombstone on the old one; once they pile up the live docs are renumbered and the postings
+ * of dead docs dropped, so doc ids stay bounded by the catalog size rather than by the edits made.
+ */
+@Slf4j
+@Component
+public class BookSearchIndex {
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    private static final int TITLE_WEIGHT = 3;
+    private static final int AUTHOR_WEIGHT = 2;
+    private static final int PUBLISHER_WEIGHT = 1;
+    private static final Set<BookField> INDEXED_FIELDS = EnumSet.of(BookField.CODE, BookField.TITLE,
+            BookField.AUTHOR, BookField.PUBLISHER);
+
+    private final BookRepository bookRepository;
+    private final int rebuildChunkSize;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Postings> postings = new HashMap<>();
+    private final Map<String, Integer> docIds = new HashMap<>();
+    private String[] codes = new String[1024];
+    private int[] lengths = new int[1024];
+    private int docCount;
+    private int deadDocs;
+    private long totalLength;
+    private volatile boolean ready;
+
+    public BookSearchIndex(BookRepository bookRepository,
+                           @Value("${books.search.rebuildChunkSize:5000}") int rebuildChunkSize) {
+        this.bookRepository = bookRepository;
+        this.rebuildChunkSize = rebuildChunkSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        String after = null;
+        List<BookSummaryDto> chunk;
+        do {
+            chunk = bookRepository.findActivePage(BookSort.CODE, false, null, after, rebuildChunkSize, INDEXED_FIELDS);
+            lock.writeLock().lock();
+            try {
+                for (BookSummaryDto book : chunk)
+                    add(book.code(), book.title(), book.author(), book.publisher());
+            } finally {
+                lock.writeLock().unlock();
+            }
+            if (!chunk.isEmpty())
+                after = chunk.get(chunk.size() - 1).code();
+        } while (chunk.size() == rebuildChunkSize);
+        ready = true;
+        log.info("Book search index built with {} books in {} ms", size(), System.currentTimeMillis() - start);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        if (event.active())
+            put(event.code(), event.title(), event.author(), event.publisher());
+        else
+            remove(event.code());
+    }
+
+    public void put(String code, String title, String author, String publisher) {
+        lock.writeLock().lock();
+        try {
+            add(code, title, author, publisher);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String code) {
+        lock.writeLock().lock();
+        try {
+            delete(code);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docIds.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Codes of the best matching books for any of the query terms, best first.
+     */
+    public List<String> search(String query, int limit) throws ServiceUnavailableException {
+        if (!ready)
+            throw new ServiceUnavailableException("Search index is loading", 5);
+        Set<String> terms = new LinkedHashSet<>(TextAnalyzer.terms(query));
+        if (terms.isEmpty() || limit < 1)
+            return List.of();
+
+        lock.readLock().lock();
+        try {
+            int liveDocs = docIds.size();
+            if (liveDocs == 0)
+                return List.of();
+            float averageLength = (float) totalLength / liveDocs;
+            float[] scores = new float[docCount];
+            int[] matched = new int[64];
+            int matchedCount = 0;
+
+            for (String term : terms) {
+                Postings list = postings.get(term);
+                if (list == null)
+                    continue;
+                int df = list.liveCount(codes);
+                if (df == 0)
+                    continue;
+                float idf = (float) Math.log(1 + (liveDocs - df + 0.5) / (df + 0.5));
+                for (int i = 0; i < list.size; i++) {
+                    int doc = list.docs[i];
+                    if (codes[doc] == null)
+                        continue;
+                    int tf = list.freqs[i];
+                    float norm = K1 * (1 - B + B * lengths[doc] / averageLength);
+                    if (scores[doc] == 0) {
+                        if (matchedCount == matched.length)
+                            matched = Arrays.copyOf(matched, matchedCount * 2);
+                        matched[matchedCount++] = doc;
+                    }
+                    scores[doc] += idf * tf * (K1 + 1) / (tf + norm);
+                }
+            }
+
+            PriorityQueue<Integer> best = new PriorityQueue<>(limit + 1, (a, b) -> Float.compare(scores[a], scores[b]));
+            for (int i = 0; i < matchedCount; i++) {
+                int doc = matched[i];
+                if (best.size() < limit) {
+                    best.add(doc);
+                } else if (scores[doc] > scores[best.peek()]) {
+                    best.poll();
+                    best.add(doc);
+                }
+            }
+            String[] result = new String[best.size()];
+            for (int i = result.length - 1; i >= 0; i--)
+                result[i] = codes[best.poll()];
+            return Arrays.asList(result);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void add(String code, String title, String author, String publisher) {
+        delete(code);
+        Map<String, Integer> frequencies = new HashMap<>();
+        int length = count(frequencies, title, TITLE_WEIGHT)
+                + count(frequencies, author, AUTHOR_WEIGHT)
+                + count(frequencies, publisher, PUBLISHER_WEIGHT);
+
+        int doc = docCount++;
+        if (doc == codes.length) {
+            codes = Arrays.copyOf(codes, doc * 2);
+            lengths = Arrays.copyOf(lengths, doc * 2);
+        }
+        codes[doc] = code;
+        lengths[doc] = length;
+        docIds.put(code, doc);
+        totalLength += length;
+        frequencies.forEach((term, tf) -> postings.computeIfAbsent(term, t -> new Postings()).add(doc, tf));
+    }
+
+    private void delete(String code) {
+        Integer doc = docIds.remove(code);
+        if (doc == null)
+            return;
+        codes[doc] = null;
+        totalLength -= lengths[doc];
+        deadDocs++;
+    }
+
+    private void compactIfNeeded() {
+        if (deadDocs < 1024 || deadDocs < docIds.size() / 4)
+            return;
+        int live = docIds.size();
+        int capacity = Math.max(1024, Integer.highestOneBit(Math.max(live, 1)) * 2);
+        String[] liveCodes = new String[capacity];
+        int[] liveLengths = new int[capacity];
+        int[] renumbered = new int[docCount];
+        int next = 0;
+        for (int doc = 0; doc < docCount; doc++) {
+            if (codes[doc] == null) {
+                renumbered[doc] = -1;
+                continue;
+            }
+            liveCodes[next] = codes[doc];
+            liveLengths[next] = lengths[doc];
+            docIds.put(codes[doc], next);
+            renumbered[doc] = next++;
+        }
+        postings.values().removeIf(list -> list.renumber(renumbered) == 0);
+        codes = liveCodes;
+        lengths = liveLengths;
+        docCount = next;
+        deadDocs = 0;
+    }
+
+    private static int count(Map<String, Integer> frequencies, String text, int weight) {
+        List<String> terms = TextAnalyzer.terms(text);
+        for (String term : terms)
+            frequencies.merge(term, weight, Integer::sum);
+        return terms.size() * weight;
+    }
+
+    private static class Postings {
+
+        private int[] docs = new int[4];
+        private int[] freqs = new int[4];
+        private int size;
+
+        void add(int doc, int freq) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                freqs = Arrays.copyOf(freqs, size * 2);
+            }
+            docs[size] = doc;
+            freqs[size] = freq;
+            size++;
+        }
+
+        int liveCount(String[] codes) {
+            int live = 0;
+            for (int i = 0; i < size; i++)
+                if (codes[docs[i]] != null)
+                    live++;
+            return live;
+        }
+
+        /**
+         * Moves the postings to the new doc ids and drops those of dead docs (-1). Ids keep their order.
+         */
+        int renumber(int[] renumbered) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                int doc = renumbered[docs[i]];
+                if (doc >= 0) {
+                    docs[kept] = doc;
+                    freqs[kept] = freqs[i];
+                    kept++;
+                }
+            }
+            size = kept;
+            if (size < docs.length / 4 && docs.length > 4) {
+                docs = Arrays.copyOf(docs, Math.max(size * 2, 4));
+                freqs = Arrays.copyOf(freqs, docs.length);
+            }
+            return kept;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.ayd.library.search;
+
+import com.ayd.library.dto.BookSuggestionDto;
+import com.ayd.library.dto.BookSummaryDto;
+import com.ayd.library.enums.BookField;
+import com.ayd.library.enums.BookSort;
+import com.ayd.library.repository.BookRepository;
+import com.ayd.library.service.BookChangedEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Serves title and author suggestions from an immutable {@link SuggestionIndex}. Book changes schedule
+ * one rebuild on a background thread (bursts of changes within the delay share it) and the new index
+ * replaces the old one in a single volatile write, so readers never see a half built index.
+ */
+@Slf4j
+@Component
+public class BookSuggester {
+
+    private static final Set<BookField> SUGGESTED_FIELDS = EnumSet.of(BookField.CODE, BookField.TITLE, BookField.AUTHOR);
+
+    private final BookRepository bookRepository;
+    private final int rebuildChunkSize;
+    private final long rebuildDelayMillis;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "book-suggest-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean rebuildPending = new AtomicBoolean();
+    private volatile SuggestionIndex index = SuggestionIndex.empty();
+
+    public BookSuggester(BookRepository bookRepository,
+                         @Value("${books.search.rebuildChunkSize:5000}") int rebuildChunkSize,
+                         @Value("${books.suggest.rebuildDelayMillis:2000}") long rebuildDelayMillis,
+                         MeterRegistry meterRegistry) {
+        this.bookRepository = bookRepository;
+        this.rebuildChunkSize = rebuildChunkSize;
+        this.rebuildDelayMillis = rebuildDelayMillis;
+        Gauge.builder("books.suggest.entries", this, suggester -> suggester.index.size()).register(meterRegistry);
+        Gauge.builder("books.suggest.memory", this, suggester -> suggester.index.memoryBytes())
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    public List<BookSuggestionDto> suggest(String prefix, int limit) {
+        return index.suggest(prefix, limit);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        scheduleRebuild(0);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        scheduleRebuild(rebuildDelayMillis);
+    }
+
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        var builder = SuggestionIndex.builder();
+        String after = null;
+        List<BookSummaryDto> chunk;
+        do {
+            chunk = bookRepository.findActivePage(BookSort.CODE, false, null, after, rebuildChunkSize, SUGGESTED_FIELDS);
+            for (BookSummaryDto book : chunk) {
+                builder.add(book.title(), SuggestionIndex.TITLE);
+                builder.add(book.author(), SuggestionIndex.AUTHOR);
+            }
+            if (!chunk.isEmpty())
+                after = chunk.get(chunk.size() - 1).code();
+        } while (chunk.size() == rebuildChunkSize);
+        index = builder.build();
+        log.debug("Book suggestions rebuilt with {} entries ({} bytes) in {} ms",
+                index.size(), index.memoryBytes(), System.currentTimeMillis() - start);
+    }
+
+    private void scheduleRebuild(long delayMillis) {
+        if (!rebuildPending.compareAndSet(false, true))
+            return;
+        executor.schedule(() -> {
+            rebuildPending.set(false);
+            try {
+                rebuild();
+            } catch (RuntimeException e) {
+                log.error("Book suggestions rebuild failed", e);
+            }
+        }, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,199 @@
+package com.ayd.library.search;
+
+import com.ayd.library.dto.BookSuggestionDto;
+
+import java.util.*;
+
+/**
+ * Immutable prefix index of titles and authors. Folded keys are kept sorted and packed into one char
+ * array, so a prefix is a contiguous range found by binary search; a max-weight segment tree over that
+ * order returns the most common completions of the range in O(k log n) without scanning it.
+ */
+public final class SuggestionIndex {
+
+    public static final String TITLE = "title";
+    public static final String AUTHOR = "author";
+
+    private static final SuggestionIndex EMPTY = new Builder().build();
+
+    private final char[] keys;
+    private final int[] keyOffsets;
+    private final char[] texts;
+    private final int[] textOffsets;
+    private final byte[] types;
+    private final int[] weights;
+    private final int[] tree;
+    private final int leaves;
+
+    private SuggestionIndex(char[] keys, int[] keyOffsets, char[] texts, int[] textOffsets, byte[] types, int[] weights) {
+        this.keys = keys;
+        this.keyOffsets = keyOffsets;
+        this.texts = texts;
+        this.textOffsets = textOffsets;
+        this.types = types;
+        this.weights = weights;
+
+        int size = 1;
+        while (size < weights.length)
+            size <<= 1;
+        leaves = size;
+        tree = new int[2 * size];
+        Arrays.fill(tree, -1);
+        for (int i = 0; i < weights.length; i++)
+            tree[size + i] = i;
+        for (int node = size - 1; node > 0; node--)
+            tree[node] = heavier(tree[2 * node], tree[2 * node + 1]);
+    }
+
+    public static SuggestionIndex empty() {
+        return EMPTY;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int size() {
+        return weights.length;
+    }
+
+    public long memoryBytes() {
+        return 2L * keys.length + 2L * texts.length + types.length
+                + 4L * (keyOffsets.length + textOffsets.length + weights.length + tree.length);
+    }
+
+    public List<BookSuggestionDto> suggest(String prefix, int limit) {
+        String key = TextAnalyzer.fold(prefix);
+        if (key.isEmpty() || limit < 1 || weights.length == 0)
+            return List.of();
+        int from = lowerBound(key, false);
+        int to = lowerBound(key, true);
+        if (from >= to)
+            return List.of();
+
+        List<BookSuggestionDto> result = new ArrayList<>(limit);
+        PriorityQueue<int[]> ranges = new PriorityQueue<>((a, b) -> compare(b[2], a[2]));
+        ranges.add(new int[]{from, to, max(from, to)});
+        while (!ranges.isEmpty() && result.size() < limit) {
+            int[] range = ranges.poll();
+            int best = range[2];
+            result.add(new BookSuggestionDto(text(best), types[best] == 0 ? TITLE : AUTHOR, weights[best]));
+            if (range[0] < best)
+                ranges.add(new int[]{range[0], best, max(range[0], best)});
+            if (best + 1 < range[1])
+                ranges.add(new int[]{best + 1, range[1], max(best + 1, range[1])});
+        }
+        return result;
+    }
+
+    private String text(int entry) {
+        return new String(texts, textOffsets[entry], textOffsets[entry + 1] - textOffsets[entry]);
+    }
+
+    /**
+     * First entry whose key is not below the prefix or, with {@code past}, first entry whose key is
+     * above every key starting with it.
+     */
+    private int lowerBound(String prefix, boolean past) {
+        int low = 0;
+        int high = weights.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            int cmp = comparePrefix(mid, prefix);
+            if (cmp < 0 || (past && cmp == 0))
+                low = mid + 1;
+            else
+                high = mid;
+        }
+        return low;
+    }
+
+    /**
+     * Compares the key of the entry with the prefix looking only at the prefix length, so every key
+     * starting with the prefix compares as equal.
+     */
+    private int comparePrefix(int entry, String prefix) {
+        int start = keyOffsets[entry];
+        int length = keyOffsets[entry + 1] - start;
+        int n = Math.min(length, prefix.length());
+        for (int i = 0; i < n; i++) {
+            int diff = keys[start + i] - prefix.charAt(i);
+            if (diff != 0)
+                return diff;
+        }
+        return length < prefix.length() ? -1 : 0;
+    }
+
+    private int max(int from, int to) {
+        int best = -1;
+        for (int low = from + leaves, high = to + leaves; low < high; low >>= 1, high >>= 1) {
+            if ((low & 1) == 1)
+                best = heavier(best, tree[low++]);
+            if ((high & 1) == 1)
+                best = heavier(best, tree[--high]);
+        }
+        return best;
+    }
+
+    private int heavier(int a, int b) {
+        if (a < 0)
+            return b;
+        if (b < 0)
+            return a;
+        int cmp = compare(a, b);
+        return cmp >= 0 ? a : b;
+    }
+
+    private int compare(int a, int b) {
+        int cmp = Integer.compare(weights[a], weights[b]);
+        return cmp != 0 ? cmp : Integer.compare(b, a);
+    }
+
+    public static class Builder {
+
+        private final Map<String, Entry> entries = new HashMap<>();
+
+        public Builder add(String text, String type) {
+            String key = TextAnalyzer.fold(text);
+            if (!key.isEmpty())
+                entries.computeIfAbsent(type.charAt(0) + key, k -> new Entry(key, text.strip(), type)).weight++;
+            return this;
+        }
+
+        public SuggestionIndex build() {
+            List<Entry> sorted = new ArrayList<>(entries.values());
+            sorted.sort(Comparator.comparing((Entry e) -> e.key).thenComparing(e -> e.type));
+            int n = sorted.size();
+            int[] keyOffsets = new int[n + 1];
+            int[] textOffsets = new int[n + 1];
+            byte[] types = new byte[n];
+            int[] weights = new int[n];
+            StringBuilder keys = new StringBuilder();
+            StringBuilder texts = new StringBuilder();
+            for (int i = 0; i < n; i++) {
+                Entry entry = sorted.get(i);
+                keys.append(entry.key);
+                texts.append(entry.text);
+                keyOffsets[i + 1] = keys.length();
+                textOffsets[i + 1] = texts.length();
+                types[i] = (byte) (TITLE.equals(entry.type) ? 0 : 1);
+                weights[i] = entry.weight;
+            }
+            return new SuggestionIndex(keys.toString().toCharArray(), keyOffsets,
+                    texts.toString().toCharArray(), textOffsets, types, weights);
+        }
+
+        private static class Entry {
+            private final String key;
+            private final String text;
+            private final String type;
+            private int weight;
+
+            Entry(String key, String text, String type) {
+                this.key = key;
+                this.text = text;
+                this.type = type;
+            }
+        }
+    }
+}
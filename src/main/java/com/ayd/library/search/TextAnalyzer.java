@@ -0,0 +1,73 @@
+package com.ayd.library.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Splits catalog text into index terms: lower case, accents folded ("Martín" and "martin" are the
+ * same term), any non letter or digit is a separator and common Spanish/English articles are dropped.
+ */
+public final class TextAnalyzer {
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "al", "con", "de", "del", "el", "en", "la", "las", "lo", "los", "para", "por", "se", "un", "una", "y",
+            "an", "and", "of", "the", "to");
+
+    private TextAnalyzer() {
+    }
+
+    public static List<String> terms(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null)
+            return terms;
+        String folded = Normalizer.normalize(text, Normalizer.Form.NFD);
+        StringBuilder term = new StringBuilder();
+        for (int i = 0; i < folded.length(); i++) {
+            char c = folded.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK)
+                continue;
+            if (Character.isLetterOrDigit(c)) {
+                term.append(Character.toLowerCase(c));
+            } else if (!term.isEmpty()) {
+                add(terms, term.toString());
+                term.setLength(0);
+            }
+        }
+        if (!term.isEmpty())
+            add(terms, term.toString());
+        return terms;
+    }
+
+    /**
+     * Lower case, accent free form of the whole text with every run of separators turned into one space,
+     * the shape used for prefix matching of suggestions.
+     */
+    public static String fold(String text) {
+        if (text == null)
+            return "";
+        String folded = Normalizer.normalize(text, Normalizer.Form.NFD);
+        StringBuilder result = new StringBuilder(folded.length());
+        boolean separator = false;
+        for (int i = 0; i < folded.length(); i++) {
+            char c = folded.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK)
+                continue;
+            if (Character.isLetterOrDigit(c)) {
+                if (separator && !result.isEmpty())
+                    result.append(' ');
+                result.append(Character.toLowerCase(c));
+                separator = false;
+            } else {
+                separator = true;
+            }
+        }
+        return result.toString();
+    }
+
+    private static void add(List<String> terms, String term) {
+        if (!STOP_WORDS.contains(term))
+            terms.add(term);
+    }
+}
@@ -2,12 +2,14 @@ package com.ayd.library.security;
 
 import com.ayd.library.service.JwtService;
 import com.ayd.library.service.UserService;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -24,21 +26,27 @@ public class JwtAuthFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
     private final UserService userService;
+
+    @Value("${token.stateless:false}")
+    private boolean stateless;
+
     @Override
     protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
                                     @NonNull FilterChain filterChain) throws ServletException, IOException {
         String authHeader = request.getHeader("Authorization");
-        String token = null;
+        Claims claims = null;
         String username = null;
         if (!StringUtils.isEmpty(authHeader) && StringUtils.startsWith(authHeader,"Bearer ")) {
-            token = authHeader.substring(7);
-            username = jwtService.extractUserName(token);
+            claims = jwtService.extractAllClaims(authHeader.substring(7));
+            username = claims.getSubject();
 
         }
 
         if (StringUtils.isNotEmpty(username) && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = userService.userDetailsService().loadUserByUsername(username);
-            if (jwtService.isTokenValid(token, userDetails)) {
+            UserDetails userDetails = stateless && claims.containsKey("ver")
+                    ? userService.principalFromClaims(claims)
+                    : userService.userDetailsService().loadUserByUsername(username);
+            if (userDetails != null && jwtService.isTokenValid(claims, userDetails)) {
                 var authToken = new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
                 authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 SecurityContextHolder.getContext().setAuthentication(authToken);
@@ -0,0 +1,88 @@
+package com.ayd.library.security;
+
+import com.ayd.library.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs password hash checks on a fixed pool with a bounded queue, so a login storm cannot take every
+ * servlet thread. When the queue is full the caller fails fast instead of waiting.
+ */
+@Component
+public class PasswordVerificationExecutor {
+
+    private final PasswordEncoder encoder;
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMillis;
+    private final long retryAfterSeconds;
+    private final Counter rejected;
+
+    public PasswordVerificationExecutor(PasswordEncoder encoder,
+                                        @Value("${security.signin.threads:0}") int threads,
+                                        @Value("${security.signin.queueCapacity:64}") int queueCapacity,
+                                        @Value("${security.signin.timeoutMillis:5000}") long timeoutMillis,
+                                        @Value("${security.signin.retryAfterSeconds:2}") long retryAfterSeconds,
+                                        MeterRegistry meterRegistry) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        var counter = new AtomicInteger();
+        this.encoder = encoder;
+        this.timeoutMillis = timeoutMillis;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    var thread = new Thread(runnable, "password-verify-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("signin.password.queue.depth", executor, e -> e.getQueue().size()).register(meterRegistry);
+        Gauge.builder("signin.password.active", executor, ThreadPoolExecutor::getActiveCount).register(meterRegistry);
+        this.rejected = Counter.builder("signin.password.rejected").register(meterRegistry);
+    }
+
+    public boolean matches(String rawPassword, String encodedPassword) throws ServiceUnavailableException {
+        return await(() -> encoder.matches(rawPassword, encodedPassword));
+    }
+
+    public String encode(String rawPassword) throws ServiceUnavailableException {
+        return await(() -> encoder.encode(rawPassword));
+    }
+
+    private <T> T await(Callable<T> task) throws ServiceUnavailableException {
+        Future<T> result;
+        try {
+            result = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new ServiceUnavailableException("Too many sign-in attempts, try again later", retryAfterSeconds);
+        }
+
+        try {
+            return result.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            result.cancel(true);
+            rejected.increment();
+            throw new ServiceUnavailableException("Sign-in timed out, try again later", retryAfterSeconds);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Sign-in interrupted", retryAfterSeconds);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Password verification failed", e.getCause());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
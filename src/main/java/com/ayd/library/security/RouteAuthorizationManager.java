@@ -0,0 +1,127 @@
+package com.ayd.library.security;
+
+import com.ayd.library.enums.Rol;
+import com.ayd.library.model.UserInfoDetails;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.server.PathContainer;
+import org.springframework.security.authentication.AuthenticationTrustResolver;
+import org.springframework.security.authentication.AuthenticationTrustResolverImpl;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Role rules for every API route, compiled at startup into path patterns grouped by HTTP method,
+ * each carrying a bitmask of the roles it admits. A request is checked once in the filter chain by
+ * the first matching route; routes not in the table only require an authenticated user.
+ */
+@Component
+public class RouteAuthorizationManager implements AuthorizationManager<RequestAuthorizationContext> {
+
+    private static final AuthorizationDecision GRANTED = new AuthorizationDecision(true);
+    private static final AuthorizationDecision DENIED = new AuthorizationDecision(false);
+    private static final List<HttpMethod> METHODS = List.of(HttpMethod.GET, HttpMethod.HEAD, HttpMethod.POST,
+            HttpMethod.PUT, HttpMethod.PATCH, HttpMethod.DELETE, HttpMethod.OPTIONS);
+    private static final Map<String, Integer> AUTHORITY_BITS = new HashMap<>();
+
+    static {
+        for (Rol rol : Rol.values())
+            AUTHORITY_BITS.put(rol.name(), bit(rol));
+    }
+
+    private final AuthenticationTrustResolver trustResolver = new AuthenticationTrustResolverImpl();
+    private final Map<String, Route[]> routesByMethod = new HashMap<>();
+    private final Route[] anyMethodRoutes;
+
+    public RouteAuthorizationManager() {
+        this(new Builder()
+                .route(HttpMethod.GET, "/books", Rol.LIBRARIAN, Rol.STUDENT)
+                .route(HttpMethod.GET, "/books/all", Rol.LIBRARIAN, Rol.STUDENT)
+                .route(HttpMethod.GET, "/books/search", Rol.LIBRARIAN, Rol.STUDENT)
+                .route(HttpMethod.GET, "/books/suggest", Rol.LIBRARIAN, Rol.STUDENT)
+                .route(null, "/books/**", Rol.LIBRARIAN)
+                .route(HttpMethod.GET, "/career/all", Rol.LIBRARIAN, Rol.STUDENT)
+                .route(null, "/career/**", Rol.LIBRARIAN)
+                .route(HttpMethod.PUT, "/student/{carnet}", Rol.LIBRARIAN, Rol.STUDENT)
+                .route(null, "/student/**", Rol.LIBRARIAN)
+                .route(null, "/loans/**", Rol.LIBRARIAN, Rol.STUDENT)
+                .route(null, "/reservations/**", Rol.LIBRARIAN, Rol.STUDENT));
+    }
+
+    private RouteAuthorizationManager(Builder builder) {
+        List<Route> anyMethod = new ArrayList<>();
+        for (Route route : builder.routes)
+            if (route.method == null)
+                anyMethod.add(route);
+        anyMethodRoutes = anyMethod.toArray(Route[]::new);
+        for (HttpMethod method : METHODS) {
+            List<Route> routes = new ArrayList<>();
+            for (Route route : builder.routes)
+                if (route.method == null || route.method.equals(method))
+                    routes.add(route);
+            routesByMethod.put(method.name(), routes.toArray(Route[]::new));
+        }
+    }
+
+    @Override
+    public AuthorizationDecision check(Supplier<Authentication> authentication, RequestAuthorizationContext context) {
+        Authentication auth = authentication.get();
+        if (auth == null || !auth.isAuthenticated() || trustResolver.isAnonymous(auth))
+            return DENIED;
+        Route route = match(context.getRequest());
+        if (route == null)
+            return GRANTED;
+        return (route.roles & roleMask(auth)) != 0 ? GRANTED : DENIED;
+    }
+
+    private Route match(HttpServletRequest request) {
+        Route[] routes = routesByMethod.getOrDefault(request.getMethod(), anyMethodRoutes);
+        PathContainer path = PathContainer.parsePath(request.getRequestURI().substring(request.getContextPath().length()));
+        for (Route route : routes)
+            if (route.pattern.matches(path))
+                return route;
+        return null;
+    }
+
+    private static int roleMask(Authentication auth) {
+        if (auth.getPrincipal() instanceof UserInfoDetails details)
+            return bit(details.getRol());
+        int mask = 0;
+        for (GrantedAuthority authority : auth.getAuthorities())
+            mask |= AUTHORITY_BITS.getOrDefault(authority.getAuthority(), 0);
+        return mask;
+    }
+
+    private static int bit(Rol rol) {
+        return 1 << rol.ordinal();
+    }
+
+    private record Route(HttpMethod method, PathPattern pattern, int roles) {
+    }
+
+    private static class Builder {
+
+        private final PathPatternParser parser = new PathPatternParser();
+        private final List<Route> routes = new ArrayList<>();
+
+        Builder route(HttpMethod method, String pattern, Rol... roles) {
+            int mask = 0;
+            for (Rol rol : roles)
+                mask |= bit(rol);
+            routes.add(new Route(method, parser.parse(pattern), mask));
+            return this;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.ayd.library.security;
+
+import com.ayd.library.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class SigninRateLimiter {
+
+    private final TokenBucketLimiter byUsername;
+    private final TokenBucketLimiter byIp;
+    private final Counter rejectedByUsername;
+    private final Counter rejectedByIp;
+
+    public SigninRateLimiter(@Value("${security.signin.rateLimit.username.capacity:5}") int usernameCapacity,
+                             @Value("${security.signin.rateLimit.username.refillPerMinute:5}") int usernameRefill,
+                             @Value("${security.signin.rateLimit.ip.capacity:30}") int ipCapacity,
+                             @Value("${security.signin.rateLimit.ip.refillPerMinute:60}") int ipRefill,
+                             @Value("${security.signin.rateLimit.stripes:64}") int stripes,
+                             MeterRegistry meterRegistry) {
+        this.byUsername = new TokenBucketLimiter(usernameCapacity, usernameRefill, stripes);
+        this.byIp = new TokenBucketLimiter(ipCapacity, ipRefill, stripes);
+        this.rejectedByUsername = Counter.builder("signin.ratelimit.rejected").tag("key", "username").register(meterRegistry);
+        this.rejectedByIp = Counter.builder("signin.ratelimit.rejected").tag("key", "ip").register(meterRegistry);
+        Gauge.builder("signin.ratelimit.buckets", byUsername, TokenBucketLimiter::size).tag("key", "username").register(meterRegistry);
+        Gauge.builder("signin.ratelimit.buckets", byIp, TokenBucketLimiter::size).tag("key", "ip").register(meterRegistry);
+    }
+
+    public void check(String username, String clientIp) throws TooManyRequestsException {
+        if (clientIp != null && !byIp.tryAcquire(clientIp)) {
+            rejectedByIp.increment();
+            throw new TooManyRequestsException("Too many sign-in attempts from this address", byIp.secondsUntilNextToken());
+        }
+        if (username != null && !byUsername.tryAcquire(username.toLowerCase())) {
+            rejectedByUsername.increment();
+            throw new TooManyRequestsException("Too many sign-in attempts for this user", byUsername.secondsUntilNextToken());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${security.signin.rateLimit.evictIntervalMillis:60000}")
+    public void evictIdle() {
+        byUsername.evictIdle();
+        byIp.evictIdle();
+    }
+}
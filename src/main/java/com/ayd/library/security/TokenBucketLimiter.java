@@ -0,0 +1,81 @@
+package com.ayd.library.security;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-process token buckets keyed by an arbitrary string. Buckets are guarded by a fixed set of striped
+ * locks instead of one lock per key or a global lock, so unrelated keys rarely contend.
+ */
+public class TokenBucketLimiter {
+
+    private final double capacity;
+    private final double tokensPerNano;
+    private final Object[] stripes;
+    private final ConcurrentHashMap<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+    public TokenBucketLimiter(int capacity, int refillPerMinute, int stripeCount) {
+        this.capacity = capacity;
+        this.tokensPerNano = refillPerMinute / (double) TimeUnit.MINUTES.toNanos(1);
+        this.stripes = new Object[Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1];
+        for (int i = 0; i < stripes.length; i++)
+            stripes[i] = new Object();
+    }
+
+    public boolean tryAcquire(String key) {
+        return tryAcquire(key, System.nanoTime());
+    }
+
+    boolean tryAcquire(String key, long now) {
+        // The bucket is looked up under the stripe lock so evictIdle cannot drop it between lookup and use.
+        synchronized (stripe(key)) {
+            var bucket = buckets.computeIfAbsent(key, k -> new Bucket(capacity, now));
+            bucket.tokens = Math.min(capacity, bucket.tokens + (now - bucket.refilledAt) * tokensPerNano);
+            bucket.refilledAt = now;
+            if (bucket.tokens < 1)
+                return false;
+            bucket.tokens -= 1;
+            return true;
+        }
+    }
+
+    public long secondsUntilNextToken() {
+        return Math.max(1, (long) Math.ceil(1 / (tokensPerNano * TimeUnit.SECONDS.toNanos(1))));
+    }
+
+    /**
+     * Drops buckets that have refilled completely; they behave exactly like a missing bucket. Each bucket
+     * is checked and removed under its stripe lock, the same one {@link #tryAcquire(String)} takes.
+     */
+    public void evictIdle() {
+        for (String key : buckets.keySet()) {
+            synchronized (stripe(key)) {
+                long now = System.nanoTime();
+                buckets.computeIfPresent(key, (k, bucket) ->
+                        bucket.tokens + (now - bucket.refilledAt) * tokensPerNano >= capacity ? null : bucket);
+            }
+        }
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+
+    private Object stripe(String key) {
+        return stripes[spread(key.hashCode()) & (stripes.length - 1)];
+    }
+
+    private static int spread(int h) {
+        return h ^ (h >>> 16);
+    }
+
+    private static final class Bucket {
+        private double tokens;
+        private long refilledAt;
+
+        private Bucket(double tokens, long refilledAt) {
+            this.tokens = tokens;
+            this.refilledAt = refilledAt;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.ayd.library.security;
+
+import com.ayd.library.model.RevokedToken;
+import com.ayd.library.repository.RevokedTokenRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Revoked token ids grouped in buckets by expiration time, fronted by a Bloom filter so the common case
+ * (token not revoked) is answered with a few bit reads. Buckets whose tokens have all expired are
+ * dropped together with their database rows, and the filter is rebuilt from what is left.
+ */
+@Component
+public class TokenRevocationList {
+
+    private final RevokedTokenRepository repository;
+    private final long bucketMillis;
+    private final int expectedEntries;
+    private final ConcurrentSkipListMap<Long, Set<String>> buckets = new ConcurrentSkipListMap<>();
+    private volatile BloomFilter filter;
+
+    public TokenRevocationList(RevokedTokenRepository repository,
+                               @Value("${token.revocation.bucketMinutes:5}") long bucketMinutes,
+                               @Value("${token.revocation.expectedEntries:100000}") int expectedEntries) {
+        this.repository = repository;
+        this.bucketMillis = TimeUnit.MINUTES.toMillis(bucketMinutes);
+        this.expectedEntries = expectedEntries;
+        this.filter = new BloomFilter(expectedEntries);
+    }
+
+    @PostConstruct
+    void load() {
+        for (var revoked : repository.findAllByExpiresAtGreaterThan(System.currentTimeMillis()))
+            add(revoked.getJti(), revoked.getExpiresAt());
+    }
+
+    public boolean isRevoked(String jti, Date expiration) {
+        if (jti == null || !filter.mightContain(jti))
+            return false;
+        var bucket = buckets.get(bucketOf(expiration.getTime()));
+        return bucket != null && bucket.contains(jti);
+    }
+
+    public void revoke(String jti, Date expiration) {
+        long expiresAt = expiration.getTime();
+        if (expiresAt <= System.currentTimeMillis() || isRevoked(jti, expiration))
+            return;
+        repository.save(new RevokedToken(jti, expiresAt));
+        add(jti, expiresAt);
+    }
+
+    public int size() {
+        return buckets.values().stream().mapToInt(Set::size).sum();
+    }
+
+    @Scheduled(fixedDelayString = "${token.revocation.purgeIntervalMillis:60000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        var expired = buckets.headMap(bucketOf(now));
+        if (expired.isEmpty())
+            return;
+        synchronized (this) {
+            expired.clear();
+            var rebuilt = new BloomFilter(Math.max(expectedEntries, size() * 2));
+            buckets.values().forEach(bucket -> bucket.forEach(rebuilt::put));
+            filter = rebuilt;
+        }
+        repository.deleteExpired(now);
+    }
+
+    private synchronized void add(String jti, long expiresAt) {
+        buckets.computeIfAbsent(bucketOf(expiresAt), key -> ConcurrentHashMap.newKeySet()).add(jti);
+        filter.put(jti);
+    }
+
+    private long bucketOf(long epochMillis) {
+        return epochMillis / bucketMillis;
+    }
+
+    static final class BloomFilter {
+        private static final int HASHES = 4;
+        private final AtomicLongArray bits;
+        private final int mask;
+
+        BloomFilter(int expectedEntries) {
+            // ~10 bits per entry keeps the false positive rate near 1% with four probes
+            int size = Integer.highestOneBit(Math.max(64, expectedEntries * 10 - 1)) << 1;
+            this.bits = new AtomicLongArray(size >>> 6);
+            this.mask = size - 1;
+        }
+
+        void put(String value) {
+            long hash = mix(value.hashCode());
+            for (int i = 0; i < HASHES; i++) {
+                int bit = probe(hash, i);
+                int word = bit >>> 6;
+                long bitMask = 1L << bit;
+                long current;
+                do {
+                    current = bits.get(word);
+                } while ((current & bitMask) == 0 && !bits.compareAndSet(word, current, current | bitMask));
+            }
+        }
+
+        boolean mightContain(String value) {
+            long hash = mix(value.hashCode());
+            for (int i = 0; i < HASHES; i++) {
+                int bit = probe(hash, i);
+                if ((bits.get(bit >>> 6) & (1L << bit)) == 0)
+                    return false;
+            }
+            return true;
+        }
+
+        private int probe(long hash, int i) {
+            return ((int) hash + i * (int) (hash >>> 32)) & mask;
+        }
+
+        private static long mix(long h) {
+            h *= 0x9E3779B97F4A7C15L;
+            h ^= h >>> 32;
+            h *= 0xC2B2AE3D27D4EB4FL;
+            return h ^ (h >>> 29);
+        }
+    }
+}
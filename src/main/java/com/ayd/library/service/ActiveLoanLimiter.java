@@ -0,0 +1,186 @@
+package com.ayd.library.service;
+
+import com.ayd.library.dto.StudentLoanCountDto;
+import com.ayd.library.enums.LoanStatus;
+import com.ayd.library.exception.LoanLimitException;
+import com.ayd.library.model.Student;
+import com.ayd.library.repository.LoanRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Active loans per student, kept in memory so the loan limit is checked with a map lookup instead of a
+ * COUNT per checkout. A checkout is counted right away and given back if its transaction rolls back; a
+ * return is counted once it commits. Both are in flight until their transaction completes. Edits that
+ * bypass this class (PUT /loans/{id}) are corrected by {@link #reconcile()}, which runs at startup and
+ * then periodically. Counts are per instance.
+ */
+@Slf4j
+@Service
+public class ActiveLoanLimiter {
+
+    private final LoanRepository loanRepository;
+    private final int maxActiveLoans;
+    private final Map<String, ActiveLoans> students = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+
+    public ActiveLoanLimiter(LoanRepository loanRepository,
+                             @Value("${loans.maxActivePerStudent:3}") int maxActiveLoans) {
+        this.loanRepository = loanRepository;
+        this.maxActiveLoans = maxActiveLoans;
+    }
+
+    public int active(String carnet) {
+        ActiveLoans loans = students(carnet);
+        synchronized (loans) {
+            return loans.active;
+        }
+    }
+
+    /**
+     * Counts one more active loan for the student, or fails if the student already reached the limit.
+     */
+    public void acquire(String carnet) throws LoanLimitException {
+        acquire(carnet, 1);
+    }
+
+    /**
+     * Counts all the loans or none: fails if they do not fit under the limit together.
+     */
+    public void acquire(String carnet, int count) throws LoanLimitException {
+        ActiveLoans loans = students(carnet);
+        synchronized (loans) {
+            if (loans.active + count > maxActiveLoans)
+                throw new LoanLimitException("El estudiante " + carnet + " tiene " + loans.active
+                        + " prestamos activos, el limite es " + maxActiveLoans);
+            loans.active += count;
+            loans.inFlight++;
+            loans.version++;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            completed(loans, count, true);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                completed(loans, count, status == STATUS_COMMITTED);
+            }
+        });
+    }
+
+    /**
+     * Counts one active loan less once the surrounding transaction commits. A student that is not loaded
+     * is left alone: the count is read from the database when it is.
+     */
+    public void release(String carnet) {
+        release(carnet, 1);
+    }
+
+    public void release(String carnet, int count) {
+        ActiveLoans loans = students.get(carnet);
+        if (loans == null)
+            return;
+        synchronized (loans) {
+            loans.inFlight++;
+            loans.version++;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            released(loans, count, true);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                released(loans, count, status == STATUS_COMMITTED);
+            }
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        reconcile();
+    }
+
+    /**
+     * Sets every count to the active loans in the database. A student with a checkout or return in flight,
+     * or whose count moved while the database was read, is left for the next pass.
+     */
+    @Scheduled(fixedDelayString = "${loans.limit.reconcileIntervalMillis:300000}",
+            initialDelayString = "${loans.limit.reconcileIntervalMillis:300000}")
+    public int reconcile() {
+        Map<String, Long> versions = new HashMap<>();
+        students.forEach((carnet, loans) -> {
+            synchronized (loans) {
+                if (loans.inFlight == 0)
+                    versions.put(carnet, loans.version);
+            }
+        });
+
+        Map<String, Integer> counts = new HashMap<>();
+        for (StudentLoanCountDto row : loanRepository.countActiveByStudent())
+            counts.put(row.carnet(), row.count().intValue());
+
+        int corrected = 0;
+        for (var entry : versions.entrySet()) {
+            ActiveLoans loans = students.get(entry.getKey());
+            int count = counts.getOrDefault(entry.getKey(), 0);
+            synchronized (loans) {
+                if (loans.version == entry.getValue() && loans.active != count) {
+                    loans.active = count;
+                    loans.version++;
+                    corrected++;
+                }
+            }
+        }
+        counts.forEach((carnet, count) -> students.putIfAbsent(carnet, new ActiveLoans(count)));
+        loaded = true;
+        if (corrected > 0)
+            log.info("Active loan counts: {} students corrected", corrected);
+        return corrected;
+    }
+
+    private ActiveLoans students(String carnet) {
+        return students.computeIfAbsent(carnet, key -> new ActiveLoans(loaded ? 0
+                : loanRepository.countByStatusAndStudent(LoanStatus.ACTIVE.name(), Student.builder().carnet(key).build())));
+    }
+
+    private void completed(ActiveLoans loans, int count, boolean committed) {
+        synchronized (loans) {
+            loans.inFlight--;
+            if (!committed) {
+                loans.active -= count;
+                loans.version++;
+            }
+        }
+    }
+
+    private void released(ActiveLoans loans, int count, boolean committed) {
+        synchronized (loans) {
+            loans.inFlight--;
+            if (committed)
+                loans.active = Math.max(loans.active - count, 0);
+            loans.version++;
+        }
+    }
+
+    private static final class ActiveLoans {
+        private int active;
+        private int inFlight;
+        private long version;
+
+        private ActiveLoans(int active) {
+            this.active = active;
+        }
+    }
+}
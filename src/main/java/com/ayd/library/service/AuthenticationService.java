@@ -1,5 +1,6 @@
 package com.ayd.library.service;
 
+import com.ayd.library.dto.user.AuthTokensDto;
 import com.ayd.library.dto.user.CredentialsDto;
 import com.ayd.library.dto.user.UserRequestDto;
 import com.ayd.library.exception.DuplicatedEntityException;
@@ -7,9 +8,8 @@ import com.ayd.library.exception.NotFoundException;
 import com.ayd.library.exception.ServiceException;
 import com.ayd.library.model.User;
 import com.ayd.library.repository.UserRepository;
+import com.ayd.library.security.PasswordVerificationExecutor;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -21,9 +21,11 @@ import java.io.IOException;
 public class AuthenticationService {
 
     private final UserRepository userRepository;
-    private final AuthenticationManager authenticationManager;
     private final JwtService jwtService;
     private final PasswordEncoder encoder;
+    private final UserService userService;
+    private final PasswordVerificationExecutor passwordVerifier;
+    private final RefreshTokenService refreshTokenService;
 
     public User signup(UserRequestDto userRequestDto) throws DuplicatedEntityException {
         var duplicatedUserByUsername = userRepository.findByUsername(userRequestDto.username());
@@ -36,7 +38,9 @@ public class AuthenticationService {
 
         var newUser = userRequestDto.toUser();
         newUser.setPassword(encoder.encode(newUser.getPassword()));
-        return userRepository.save(newUser);
+        var savedUser = userRepository.save(newUser);
+        userService.evictUserDetails(newUser.getUsername());
+        return savedUser;
 
     }
 
@@ -52,15 +56,31 @@ public class AuthenticationService {
         if (duplicatedEmail.isPresent())
             throw new DuplicatedEntityException("User with email already exists");
 
+        var previousUsername = userToUpdate.getUsername();
         userToUpdate.setName(userRequestDto.name());
         userToUpdate.setEmail(userRequestDto.email());
         userToUpdate.setUsername(userRequestDto.username());
         userToUpdate.setPassword(encoder.encode(userRequestDto.password()));
+        userToUpdate.setTokenVersion(userToUpdate.getTokenVersion() == null ? 1 : userToUpdate.getTokenVersion() + 1);
 
-        return userRepository.save(userToUpdate);
+        var updatedUser = userRepository.save(userToUpdate);
+        refreshTokenService.revokeAllForUser(id);
+        userService.evictUserDetails(previousUsername);
+        userService.evictUser(userToUpdate);
+        return updatedUser;
     }
 
-    public String signin(CredentialsDto credentials) throws ServiceException, IOException {
+    public void logout(String token, String refreshToken) {
+        jwtService.revokeToken(token);
+        if (refreshToken != null)
+            refreshTokenService.revoke(refreshToken);
+    }
+
+    public AuthTokensDto refresh(String refreshToken) throws ServiceException, IOException {
+        return refreshTokenService.rotate(refreshToken);
+    }
+
+    public AuthTokensDto signin(CredentialsDto credentials) throws ServiceException, IOException {
 
         var user = userRepository.findByUsername(credentials.username())
                 .orElseThrow(() -> new NotFoundException("User not found"));
@@ -68,9 +88,13 @@ public class AuthenticationService {
         if (!(user.getStatus() == 1))
             throw new ServiceException("User is disabled");
 
-        var authentication = authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(credentials.username(), credentials.password()));
-        if (authentication != null && authentication.isAuthenticated()) {
-            return jwtService.generateToken(user);
+        if (passwordVerifier.matches(credentials.password(), user.getPassword())) {
+            if (encoder.upgradeEncoding(user.getPassword())) {
+                user.setPassword(passwordVerifier.encode(credentials.password()));
+                userRepository.save(user);
+                userService.evictUserDetails(user.getUsername());
+            }
+            return new AuthTokensDto(jwtService.generateToken(user), refreshTokenService.issue(user));
         }
         throw new UsernameNotFoundException("Invalid user credentials");
 
@@ -0,0 +1,97 @@
+package com.ayd.library.service;
+
+import com.ayd.library.dto.BookSummaryDto;
+import com.ayd.library.model.Book;
+import com.ayd.library.repository.BookRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Catalog data of active books by code, read through from the database; soft-deleted books are absent.
+ * Concurrent misses on the same code share one load. Entries never carry availableCopies: admission
+ * always asks {@link InventoryService}.
+ * Edits invalidate the entry again after commit, so a load racing the edit cannot keep the old row.
+ * Codes are keyed upper-cased, since the column compares them ignoring case.
+ */
+@Component
+public class BookCatalogCache {
+
+    private final BookRepository repository;
+    private final Cache<String, BookSummaryDto> cache;
+
+    public BookCatalogCache(BookRepository repository,
+                            @Value("${books.cache.maxSize:10000}") long maxSize,
+                            @Value("${books.cache.ttlSeconds:600}") long ttlSeconds,
+                            MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "books.catalog");
+    }
+
+    public Optional<BookSummaryDto> get(String code) {
+        if (code == null)
+            return Optional.empty();
+        return Optional.ofNullable(cache.get(key(code), this::load));
+    }
+
+    /**
+     * Books of the given codes that exist, keyed by code ignoring case. All misses are read with one query.
+     */
+    public Map<String, BookSummaryDto> getAll(Collection<String> codes) {
+        Map<String, BookSummaryDto> books = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        books.putAll(cache.getAll(codes.stream().map(BookCatalogCache::key).toList(), this::loadAll));
+        return books;
+    }
+
+    public void invalidate(String code) {
+        cache.invalidate(key(code));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        invalidate(event.code());
+    }
+
+    private BookSummaryDto load(String code) {
+        return repository.findById(code).filter(BookCatalogCache::isActive).map(BookCatalogCache::summary).orElse(null);
+    }
+
+    private Map<String, BookSummaryDto> loadAll(Set<? extends String> codes) {
+        Map<String, BookSummaryDto> books = new HashMap<>();
+        for (Book book : repository.findAllById(Set.copyOf(codes)))
+            if (isActive(book))
+                books.put(key(book.getCode()), summary(book));
+        return books;
+    }
+
+    private static String key(String code) {
+        return code.toUpperCase(Locale.ROOT);
+    }
+
+    private static boolean isActive(Book book) {
+        return Boolean.TRUE.equals(book.getStatus());
+    }
+
+    private static BookSummaryDto summary(Book book) {
+        return new BookSummaryDto(book.getCode(), book.getTitle(), book.getAuthor(),
+                book.getPublicationDate(), book.getPublisher(), null);
+    }
+}
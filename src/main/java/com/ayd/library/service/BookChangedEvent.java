@@ -0,0 +1,15 @@
+package com.ayd.library.service;
+
+import com.ayd.library.model.Book;
+
+/**
+ * Published by {@link BookService} whenever a book is created, edited or soft-deleted, so in-memory
+ * views of the catalog can follow it once the transaction commits.
+ */
+public record BookChangedEvent(String code, String title, String author, String publisher, boolean active) {
+
+    public static BookChangedEvent of(Book book) {
+        return new BookChangedEvent(book.getCode(), book.getTitle(), book.getAuthor(), book.getPublisher(),
+                Boolean.TRUE.equals(book.getStatus()));
+    }
+}
@@ -0,0 +1,34 @@
+package com.ayd.library.service;
+
+import com.ayd.library.enums.BookSort;
+import com.ayd.library.exception.InvalidRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque continuation token of the catalog: the sort order plus the (key, code) of the last book
+ * returned, so the next page does not depend on rows inserted or removed in between.
+ */
+record BookCursor(BookSort sort, boolean descending, String key, String code) {
+
+    String encode() {
+        String raw = sort.name() + '|' + (descending ? 'd' : 'a') + '|' + key.length() + '|' + key + code;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static BookCursor decode(String token) throws InvalidRequestException {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 4);
+            int keyLength = Integer.parseInt(parts[2]);
+            String key = parts[3].substring(0, keyLength);
+            String code = parts[3].substring(keyLength);
+            if (code.isEmpty() || !("a".equals(parts[1]) || "d".equals(parts[1])))
+                throw new IllegalArgumentException();
+            return new BookCursor(BookSort.valueOf(parts[0]), "d".equals(parts[1]), key, code);
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new InvalidRequestException("Cursor invalido");
+        }
+    }
+}
@@ -0,0 +1,328 @@
+package com.ayd.library.service;
+
+import com.ayd.library.configs.MediaTypes;
+import com.ayd.library.dto.BookImportErrorDto;
+import com.ayd.library.dto.BookImportResultDto;
+import com.ayd.library.dto.BookRequestDto;
+import com.ayd.library.exception.InvalidRequestException;
+import com.ayd.library.repository.BookRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+
+/**
+ * Imports books from CSV or NDJSON while the body is being read. Rows are collected in chunks; each chunk
+ * looks up the codes already in the catalog with one IN query and inserts the rest with one JDBC batch in
+ * its own transaction, so memory stays bounded by the chunk size and a bad row never rejects the file.
+ */
+@Slf4j
+@Service
+public class BookImportService {
+
+    private static final String INSERT_SQL = "INSERT INTO book (code, title, author, publicationDate, publisher, availableCopies, status) " +
+            "VALUES (?, ?, ?, ?, ?, ?, 1)";
+    // A quoted field may span lines, but a record never needs more than this; past it the quote is stray.
+    private static final int MAX_RECORD_LINES = 20;
+    private static final int MAX_RECORD_CHARS = 8192;
+    private static final List<String> CSV_COLUMNS = List.of("code", "title", "author", "publicationdate", "publisher", "availablecopies");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final BookRepository bookRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+    private final int maxErrors;
+
+    public BookImportService(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                             BookRepository bookRepository, ApplicationEventPublisher eventPublisher, ObjectMapper objectMapper,
+                             @Value("${books.import.chunkSize:1000}") int chunkSize,
+                             @Value("${books.import.maxErrors:100}") int maxErrors) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.bookRepository = bookRepository;
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+        this.maxErrors = maxErrors;
+    }
+
+    public BookImportResultDto importBooks(InputStream body, String contentType) throws IOException, InvalidRequestException {
+        boolean csv = isCsv(contentType);
+        long start = System.currentTimeMillis();
+        var lines = new Lines(new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8)));
+        var run = new ImportRun();
+        int[] columns = csv ? csvColumns(lines.next()) : null;
+        long lineNumber = csv ? 1 : 0;
+        List<Row> chunk = new ArrayList<>(chunkSize);
+
+        String line;
+        while ((line = lines.next()) != null) {
+            long recordLine = ++lineNumber;
+            if (line.isBlank())
+                continue;
+            run.rows++;
+            if (csv && hasOddQuotes(line)) {
+                // A quoted field may hold line breaks (GET /books/export writes them so); read until it closes.
+                List<String> continuation = new ArrayList<>();
+                String record = readQuotedRecord(line, lines, continuation);
+                if (record == null) {
+                    // The quote never closed: fail this line only and read the following ones as records again.
+                    run.fail(recordLine, null, "Comillas sin cerrar en el registro");
+                    lines.unread(continuation);
+                    continue;
+                }
+                lineNumber += continuation.size();
+                line = record;
+            }
+            try {
+                BookRequestDto book = csv ? parseCsv(line, columns) : parseJson(line);
+                validate(book);
+                chunk.add(new Row(recordLine, book));
+            } catch (InvalidRequestException e) {
+                run.fail(recordLine, null, e.getMessage());
+            }
+            if (chunk.size() == chunkSize) {
+                write(chunk, run);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty())
+            write(chunk, run);
+
+        long elapsed = System.currentTimeMillis() - start;
+        long rowsPerSecond = run.rows * 1000 / Math.max(elapsed, 1);
+        log.info("Book import: {} rows, {} imported, {} failed in {} ms ({} rows/s)",
+                run.rows, run.imported, run.failed, elapsed, rowsPerSecond);
+        return new BookImportResultDto(run.rows, run.imported, run.failed, elapsed, rowsPerSecond, run.errors);
+    }
+
+    private void write(List<Row> chunk, ImportRun run) {
+        try {
+            insert(chunk, run);
+        } catch (DuplicateKeyException e) {
+            // A book with one of these codes was created after the lookup; the chunk rolled back, redo it.
+            try {
+                insert(chunk, run);
+            } catch (DuplicateKeyException again) {
+                log.warn("Book import: chunk of {} rows rejected twice by duplicate codes", chunk.size(), again);
+                chunk.forEach(row -> run.fail(row.line(), row.book().getCode(),
+                        "Existe un libro con el codigo: " + row.book().getCode()));
+            }
+        }
+    }
+
+    private void insert(List<Row> chunk, ImportRun run) {
+        List<BookImportErrorDto> errors = new ArrayList<>();
+        int inserted = transactionTemplate.execute(status -> {
+            // Codes are compared the way the column collation does, so "abc" is taken when "ABC" exists.
+            Set<String> taken = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+            taken.addAll(bookRepository.findExistingCodes(chunk.stream().map(row -> row.book().getCode()).toList()));
+            List<Object[]> batch = new ArrayList<>(chunk.size());
+            for (Row row : chunk) {
+                BookRequestDto book = row.book();
+                if (!taken.add(book.getCode())) {
+                    errors.add(new BookImportErrorDto(row.line(), book.getCode(), "Existe un libro con el codigo: " + book.getCode()));
+                    continue;
+                }
+                batch.add(new Object[]{book.getCode(), book.getTitle(), book.getAuthor(),
+                        book.getPublicationDate() == null ? null : Date.valueOf(book.getPublicationDate()),
+                        book.getPublisher(), book.getAvailableCopies()});
+                eventPublisher.publishEvent(new BookChangedEvent(book.getCode(), book.getTitle(), book.getAuthor(),
+                        book.getPublisher(), true));
+            }
+            if (!batch.isEmpty())
+                jdbcTemplate.batchUpdate(INSERT_SQL, batch);
+            return batch.size();
+        });
+        run.imported += inserted;
+        errors.forEach(error -> run.fail(error.line(), error.code(), error.message()));
+    }
+
+    private static boolean isCsv(String contentType) throws InvalidRequestException {
+        String type = contentType == null ? "" : contentType.split(";", 2)[0].trim().toLowerCase(Locale.ROOT);
+        if (type.equals(MediaTypes.CSV))
+            return true;
+        if (type.equals(MediaTypes.NDJSON))
+            return false;
+        throw new InvalidRequestException("Formato no soportado, use " + MediaTypes.CSV + " o " + MediaTypes.NDJSON);
+    }
+
+    /**
+     * Position of every known column in the header, or -1 when the file does not have it.
+     */
+    private static int[] csvColumns(String header) throws InvalidRequestException {
+        if (header == null)
+            throw new InvalidRequestException("El archivo esta vacio");
+        int[] columns = new int[CSV_COLUMNS.size()];
+        Arrays.fill(columns, -1);
+        List<String> names = splitCsv(header.startsWith("\uFEFF") ? header.substring(1) : header);
+        for (int i = 0; i < names.size(); i++) {
+            int column = CSV_COLUMNS.indexOf(names.get(i).trim().toLowerCase(Locale.ROOT));
+            if (column >= 0)
+                columns[column] = i;
+        }
+        for (String required : List.of("code", "title", "author", "availablecopies"))
+            if (columns[CSV_COLUMNS.indexOf(required)] < 0)
+                throw new InvalidRequestException("Falta la columna " + required);
+        return columns;
+    }
+
+    private static BookRequestDto parseCsv(String line, int[] columns) throws InvalidRequestException {
+        List<String> values = splitCsv(line);
+        String copies = value(values, columns[5]);
+        String date = value(values, columns[3]);
+        try {
+            return new BookRequestDto(value(values, columns[0]), value(values, columns[1]), value(values, columns[2]),
+                    date == null ? null : LocalDate.parse(date), value(values, columns[4]),
+                    copies == null ? null : Integer.valueOf(copies));
+        } catch (NumberFormatException e) {
+            throw new InvalidRequestException("Cantidad de copias invalida: " + copies);
+        } catch (DateTimeParseException e) {
+            throw new InvalidRequestException("Fecha de publicacion invalida: " + date);
+        }
+    }
+
+    private BookRequestDto parseJson(String line) throws InvalidRequestException {
+        try {
+            return objectMapper.readValue(line, BookRequestDto.class);
+        } catch (JsonProcessingException e) {
+            throw new InvalidRequestException("JSON invalido: " + e.getOriginalMessage());
+        }
+    }
+
+    private static String value(List<String> values, int column) {
+        if (column < 0 || column >= values.size())
+            return null;
+        String value = values.get(column).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    /**
+     * Reads the lines that close the quoted field opened by {@code first}, or returns null if the record
+     * would pass {@link #MAX_RECORD_LINES} or {@link #MAX_RECORD_CHARS} first. The lines read are left in
+     * {@code continuation} either way.
+     */
+    private static String readQuotedRecord(String first, Lines lines, List<String> continuation) throws IOException {
+        StringBuilder record = new StringBuilder(first);
+        boolean open = true;
+        String next;
+        while (open && continuation.size() < MAX_RECORD_LINES && (next = lines.next()) != null) {
+            continuation.add(next);
+            record.append('\n').append(next);
+            if (record.length() > MAX_RECORD_CHARS)
+                return null;
+            if (hasOddQuotes(next))
+                open = false;
+        }
+        return open ? null : record.toString();
+    }
+
+    /**
+     * Whether the line opens or closes a quoted field; a doubled quote counts twice, so parity is enough.
+     */
+    private static boolean hasOddQuotes(String line) {
+        int quotes = 0;
+        for (int i = 0; i < line.length(); i++)
+            if (line.charAt(i) == '"')
+                quotes++;
+        return quotes % 2 == 1;
+    }
+
+    /**
+     * Splits one CSV record; fields may be quoted and a doubled quote inside quotes is a literal quote.
+     */
+    private static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"')
+                    field.append(c);
+                else if (i + 1 < line.length() && line.charAt(i + 1) == '"')
+                    field.append(line.charAt(++i));
+                else
+                    quoted = false;
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static void validate(BookRequestDto book) throws InvalidRequestException {
+        if (book.getCode() == null || book.getCode().isBlank() || book.getCode().length() > 20)
+            throw new InvalidRequestException("El codigo es obligatorio y de maximo 20 caracteres");
+        if (book.getTitle() == null || book.getTitle().isBlank() || book.getTitle().length() > 255)
+            throw new InvalidRequestException("El titulo es obligatorio y de maximo 255 caracteres");
+        if (book.getAuthor() == null || book.getAuthor().isBlank() || book.getAuthor().length() > 255)
+            throw new InvalidRequestException("El autor es obligatorio y de maximo 255 caracteres");
+        if (book.getPublisher() != null && book.getPublisher().length() > 255)
+            throw new InvalidRequestException("La editorial debe tener maximo 255 caracteres");
+        if (book.getAvailableCopies() == null || book.getAvailableCopies() < 0)
+            throw new InvalidRequestException("La cantidad de copias debe ser 0 o mayor");
+    }
+
+    private record Row(long line, BookRequestDto book) {
+    }
+
+    /**
+     * Lines of the body, with room to put back the ones read past a stray quote.
+     */
+    private static final class Lines {
+
+        private final BufferedReader reader;
+        private final Deque<String> unread = new ArrayDeque<>();
+
+        Lines(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        String next() throws IOException {
+            return unread.isEmpty() ? reader.readLine() : unread.poll();
+        }
+
+        void unread(List<String> lines) {
+            for (int i = lines.size() - 1; i >= 0; i--)
+                unread.push(lines.get(i));
+        }
+    }
+
+    private class ImportRun {
+
+        private long rows;
+        private long imported;
+        private long failed;
+        private final List<BookImportErrorDto> errors = new ArrayList<>();
+
+        void fail(long line, String code, String message) {
+            failed++;
+            if (errors.size() < maxErrors)
+                errors.add(new BookImportErrorDto(line, code, message));
+        }
+    }
+}
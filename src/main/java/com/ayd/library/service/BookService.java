@@ -1,22 +1,51 @@
 package com.ayd.library.service;
 
+import com.ayd.library.dto.BookPageDto;
 import com.ayd.library.dto.BookRequestDto;
+import com.ayd.library.dto.BookSuggestionDto;
+import com.ayd.library.dto.BookSummaryDto;
+import com.ayd.library.enums.BookField;
+import com.ayd.library.enums.BookSort;
 import com.ayd.library.exception.DuplicatedEntityException;
+import com.ayd.library.exception.InvalidRequestException;
 import com.ayd.library.exception.NotFoundException;
+import com.ayd.library.exception.ServiceUnavailableException;
 import com.ayd.library.model.Book;
 import com.ayd.library.repository.BookRepository;
+import com.ayd.library.search.BookSearchIndex;
+import com.ayd.library.search.BookSuggester;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
 
 @Service
 @RequiredArgsConstructor
 public class BookService {
 
     final BookRepository repository;
+    final BookSearchIndex searchIndex;
+    final BookSuggester suggester;
+    final ApplicationEventPublisher eventPublisher;
+    final BookCatalogCache catalogCache;
+    final InventoryService inventoryService;
+
+    @Value("${books.page.defaultSize:50}")
+    private int defaultPageSize;
+
+    @Value("${books.page.maxSize:200}")
+    private int maxPageSize;
 
     @Transactional
     public Book createBook(BookRequestDto bookDto) throws DuplicatedEntityException{
@@ -33,19 +62,30 @@ public class BookService {
                 .status(true)
                 .build();
 
-        return repository.save(book);
+        Book saved = repository.save(book);
+        eventPublisher.publishEvent(BookChangedEvent.of(saved));
+        return saved;
 
     }
     @Transactional
     public Book updateBook(String code, BookRequestDto updatedBook) throws NotFoundException {
+        // availableCopies is written as given, so the loans not written back yet must be folded in first.
+        inventoryService.flush(code);
         return repository.findById(code)
                 .map(existingBook -> {
+                    // The counter keeps the checkouts still in flight, so it is moved by the edit, not reloaded.
+                    int delta = updatedBook.getAvailableCopies() == null ? 0
+                            : updatedBook.getAvailableCopies() - existingBook.getAvailableCopies();
                     existingBook.setTitle(updatedBook.getTitle());
                     existingBook.setAuthor(updatedBook.getAuthor());
                     existingBook.setAvailableCopies(updatedBook.getAvailableCopies());
                     existingBook.setPublisher(updatedBook.getPublisher());
 
-                    return repository.save(existingBook);
+                    Book saved = repository.save(existingBook);
+                    inventoryService.adjust(saved.getCode(), delta);
+                    catalogCache.invalidate(code);
+                    eventPublisher.publishEvent(BookChangedEvent.of(saved));
+                    return saved;
                 })
                 .orElseThrow(() -> new NotFoundException("Book not found with ID: " + code));
     }
@@ -55,15 +95,139 @@ public class BookService {
                 .orElseThrow(() -> new NotFoundException("No se encuentra el libro con el codigo: " + code));
     }
 
+    /**
+     * Book to link a loan or reservation to. Its existence is checked against the catalog cache and the
+     * returned reference is not loaded, so only its code should be read. The code is the stored one,
+     * whatever case it was asked with.
+     */
+    public Book getBookReference(String code) throws NotFoundException {
+        BookSummaryDto book = catalogCache.get(code)
+                .orElseThrow(() -> new NotFoundException("No se encuentra el libro con el codigo: " + code));
+        return repository.getReferenceById(book.code());
+    }
+
+    /**
+     * References of the given books that exist, keyed by code ignoring case, checked like
+     * {@link #getBookReference(String)}.
+     */
+    public Map<String, Book> getBookReferences(Collection<String> codes) {
+        Map<String, Book> books = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (BookSummaryDto book : catalogCache.getAll(codes).values())
+            books.put(book.code(), repository.getReferenceById(book.code()));
+        return books;
+    }
+
     public List<Book> getAllBooks() {
         return repository.findByStatus(true);
     }
 
+    public List<BookSummaryDto> searchBooks(String query, Integer limit) throws InvalidRequestException, ServiceUnavailableException {
+        int maxResults = limit == null ? defaultPageSize : limit;
+        if (maxResults < 1 || maxResults > maxPageSize)
+            throw new InvalidRequestException("El limite debe estar entre 1 y " + maxPageSize);
+        if (query == null || query.isBlank())
+            throw new InvalidRequestException("La busqueda no puede estar vacia");
+
+        List<String> codes = searchIndex.search(query, maxResults);
+        if (codes.isEmpty())
+            return List.of();
+        Map<String, BookSummaryDto> books = new HashMap<>();
+        for (BookSummaryDto book : repository.findSummariesByCodeIn(codes))
+            books.put(book.code(), book);
+        return codes.stream().map(books::get).filter(Objects::nonNull).toList();
+    }
+
+    public List<BookSuggestionDto> suggestBooks(String prefix, Integer limit) throws InvalidRequestException {
+        int maxResults = limit == null ? 10 : limit;
+        if (maxResults < 1 || maxResults > maxPageSize)
+            throw new InvalidRequestException("El limite debe estar entre 1 y " + maxPageSize);
+        return suggester.suggest(prefix, maxResults);
+    }
+
+    /**
+     * One page of the active catalog. Without a cursor the page starts at the first book of the requested
+     * order; with one, sort and direction come from the cursor and the page continues right after it.
+     * {@code fields} limits the columns read and returned; code and the sort field are always included.
+     */
+    public BookPageDto getCatalogPage(String cursor, String sort, String direction, Integer size, String fields)
+            throws InvalidRequestException {
+        int pageSize = size == null ? defaultPageSize : size;
+        if (pageSize < 1 || pageSize > maxPageSize)
+            throw new InvalidRequestException("El tamaño de pagina debe estar entre 1 y " + maxPageSize);
+
+        BookCursor position = cursor == null ? null : BookCursor.decode(cursor);
+        BookSort bookSort = position != null ? position.sort() : parseSort(sort);
+        boolean descending = position != null ? position.descending() : parseDescending(direction);
+
+        Set<BookField> selected = parseFields(fields);
+        selected.add(BookField.CODE);
+        if (bookSort == BookSort.TITLE)
+            selected.add(BookField.TITLE);
+        if (bookSort == BookSort.AUTHOR)
+            selected.add(BookField.AUTHOR);
+
+        List<BookSummaryDto> books = repository.findActivePage(bookSort, descending,
+                position == null ? null : position.key(),
+                position == null ? null : position.code(),
+                pageSize + 1, selected);
+        if (books.size() <= pageSize)
+            return new BookPageDto(books, null);
+
+        books = books.subList(0, pageSize);
+        BookSummaryDto last = books.get(pageSize - 1);
+        String next = new BookCursor(bookSort, descending, sortKey(last, bookSort), last.code()).encode();
+        return new BookPageDto(books, next);
+    }
+
+    private static Set<BookField> parseFields(String fields) throws InvalidRequestException {
+        if (fields == null || fields.isBlank())
+            return EnumSet.allOf(BookField.class);
+        Set<BookField> selected = EnumSet.noneOf(BookField.class);
+        for (String name : fields.split(",")) {
+            BookField field = null;
+            for (BookField value : BookField.values())
+                if (value.getProperty().equalsIgnoreCase(name.trim()))
+                    field = value;
+            if (field == null)
+                throw new InvalidRequestException("Campo no soportado: " + name.trim());
+            selected.add(field);
+        }
+        return selected;
+    }
+
+    private static BookSort parseSort(String sort) throws InvalidRequestException {
+        if (sort == null)
+            return BookSort.CODE;
+        for (BookSort value : BookSort.values())
+            if (value.getProperty().equalsIgnoreCase(sort))
+                return value;
+        throw new InvalidRequestException("Orden no soportado: " + sort);
+    }
+
+    private static boolean parseDescending(String direction) throws InvalidRequestException {
+        if (direction == null || "asc".equalsIgnoreCase(direction))
+            return false;
+        if ("desc".equalsIgnoreCase(direction))
+            return true;
+        throw new InvalidRequestException("Direccion no soportada: " + direction);
+    }
+
+    private static String sortKey(BookSummaryDto book, BookSort sort) {
+        return switch (sort) {
+            case CODE -> "";
+            case TITLE -> book.title();
+            case AUTHOR -> book.author();
+        };
+    }
+
     @Transactional
     public Book softDeleteBook(String code) throws NotFoundException {
         Book book = repository.findById(code)
                 .orElseThrow(() -> new NotFoundException("No se encuentra el libro con el codigo: " + code));
         book.setStatus(false);
-        return repository.save(book);
+        Book saved = repository.save(book);
+        catalogCache.invalidate(code);
+        eventPublisher.publishEvent(BookChangedEvent.of(saved));
+        return saved;
     }
 }
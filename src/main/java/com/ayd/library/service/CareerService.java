@@ -16,6 +16,7 @@ import java.util.List;
 public class CareerService {
 
     private final CareerRepository repository;
+    private final CatalogVersion catalogVersion;
 
     @Transactional
     public Career createCareer(Career career) throws DuplicatedEntityException {
@@ -23,6 +24,7 @@ public class CareerService {
             throw new DuplicatedEntityException("Existe la carrera con el codigo: " + career.getCode());
         }
         career.setStatus(true);
+        catalogVersion.bump();
         return repository.save(career);
     }
     @Transactional
@@ -30,6 +32,7 @@ public class CareerService {
         return repository.findById(code)
                 .map(existingCareer -> {
                     existingCareer.setName(updatedCareer.getName());
+                    catalogVersion.bump();
                     return repository.save(existingCareer);
                 })
                 .orElseThrow(() -> new NotFoundException("No se encontró la carrera con código: " + code));
@@ -49,6 +52,7 @@ public class CareerService {
                 .orElseThrow(() -> new NotFoundException("No se encontró la carrera con código: " + code));
 
         career.setStatus(false);
+        catalogVersion.bump();
         return repository.save(career);
 
     }
@@ -0,0 +1,48 @@
+package com.ayd.library.service;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Version of everything the catalog list endpoints render: books, careers and the loans and reservations
+ * embedded in each book. It moves only after the write commits, so whoever sees a new version also sees
+ * the data behind it. It starts at the startup time to keep growing across restarts; it is per instance.
+ */
+@Component
+public class CatalogVersion {
+
+    private final AtomicLong version = new AtomicLong(System.currentTimeMillis());
+
+    public long current() {
+        return version.get();
+    }
+
+    /**
+     * Strong ETag of the current version.
+     */
+    public String etag() {
+        return "\"" + version.get() + "\"";
+    }
+
+    public void bump() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            version.incrementAndGet();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                version.incrementAndGet();
+            }
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        version.incrementAndGet();
+    }
+}
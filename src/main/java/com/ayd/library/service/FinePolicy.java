@@ -0,0 +1,39 @@
+package com.ayd.library.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Fine of an overdue loan: a daily rate for every day late past the grace days, capped at maxFine
+ * (0 means no cap). It depends only on the return date and the day it is computed for.
+ */
+@Component
+public class FinePolicy {
+
+    private final BigDecimal dailyRate;
+    private final long graceDays;
+    private final BigDecimal maxFine;
+
+    public FinePolicy(@Value("${loans.fines.dailyRate:1.00}") BigDecimal dailyRate,
+                      @Value("${loans.fines.graceDays:0}") long graceDays,
+                      @Value("${loans.fines.maxFine:0}") BigDecimal maxFine) {
+        this.dailyRate = dailyRate;
+        this.graceDays = graceDays;
+        this.maxFine = maxFine;
+    }
+
+    public BigDecimal fineFor(LocalDate returnDate, LocalDate asOf) {
+        long daysLate = ChronoUnit.DAYS.between(returnDate, asOf) - graceDays;
+        if (daysLate <= 0)
+            return BigDecimal.ZERO.setScale(2);
+        BigDecimal fine = dailyRate.multiply(BigDecimal.valueOf(daysLate));
+        if (maxFine.signum() > 0 && fine.compareTo(maxFine) > 0)
+            fine = maxFine;
+        return fine.setScale(2, RoundingMode.HALF_UP);
+    }
+}
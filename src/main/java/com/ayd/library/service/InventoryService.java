@@ -0,0 +1,186 @@
+package com.ayd.library.service;
+
+import com.ayd.library.enums.InventoryState;
+import com.ayd.library.exception.EnoughException;
+import com.ayd.library.model.Loan;
+import com.ayd.library.repository.BookRepository;
+import com.ayd.library.repository.LoanRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Admits checkouts against in-memory availability counters instead of the book row. A counter is loaded
+ * on first use from {@code Book.availableCopies} corrected by the loans not written back yet, and is
+ * taken with a compare-and-set, so concurrent checkouts of a hot title never wait on each other.
+ * Loans record whether their copy is still pending; a scheduled flush folds every pending loan into one
+ * UPDATE per book. Since the pending state lives in the loan rows, the flush on startup also recovers
+ * whatever a crashed instance had not written.
+ */
+@Slf4j
+@Service
+public class InventoryService {
+
+    private static final Set<InventoryState> PENDING = EnumSet.of(InventoryState.CHECKOUT_PENDING, InventoryState.RETURN_PENDING);
+
+    private final BookRepository bookRepository;
+    private final LoanRepository loanRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final CatalogVersion catalogVersion;
+    private final int flushBatchSize;
+    private final Counter flushedLoans;
+    private final Counter flushedBooks;
+    private final Map<String, AtomicInteger> counters = new ConcurrentHashMap<>();
+
+    public InventoryService(BookRepository bookRepository, LoanRepository loanRepository,
+                            TransactionTemplate transactionTemplate, CatalogVersion catalogVersion,
+                            @Value("${inventory.flushBatchSize:1000}") int flushBatchSize,
+                            MeterRegistry meterRegistry) {
+        this.bookRepository = bookRepository;
+        this.loanRepository = loanRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.catalogVersion = catalogVersion;
+        this.flushBatchSize = flushBatchSize;
+        this.flushedLoans = meterRegistry.counter("inventory.flush.loans");
+        this.flushedBooks = meterRegistry.counter("inventory.flush.books");
+    }
+
+    public int available(String code) {
+        return counter(code).get();
+    }
+
+    /**
+     * Takes one copy. If the surrounding transaction rolls back the copy is given back to the counter.
+     */
+    public void checkout(String code) throws EnoughException {
+        AtomicInteger counter = counter(code);
+        int available;
+        do {
+            available = counter.get();
+            if (available <= 0)
+                throw new EnoughException("Enough available copies");
+        } while (!counter.compareAndSet(available, available - 1));
+        compensateOnRollback(code, counter, 1);
+    }
+
+    /**
+     * Gives one copy back. A counter that is not loaded is left alone: it will read the returned loan
+     * from the database when it is.
+     */
+    public void checkin(String code) {
+        checkin(code, 1);
+    }
+
+    /**
+     * Gives several copies of one book back at once.
+     */
+    public void checkin(String code, int copies) {
+        adjust(code, copies);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void recover() {
+        int applied = flush();
+        if (applied > 0)
+            log.info("Inventory recovery applied {} pending loans", applied);
+    }
+
+    /**
+     * Moves a loaded counter by an edit of the book's copies, undone if the edit rolls back. The counter
+     * is kept rather than reloaded: a reload cannot see the checkouts still in flight, and their rollback
+     * compensation would no longer reach it.
+     */
+    public void adjust(String code, int delta) {
+        AtomicInteger counter = counters.get(code);
+        if (counter == null || delta == 0)
+            return;
+        counter.addAndGet(delta);
+        compensateOnRollback(code, counter, -delta);
+    }
+
+    /**
+     * Drops the counter of a book that no longer exists; the next check loads it again.
+     */
+    public void evict(String code) {
+        counters.remove(code);
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.flushIntervalMillis:1000}")
+    public int flush() {
+        int total = 0;
+        int applied;
+        do {
+            applied = transactionTemplate.execute(status -> flushBatch());
+            total += applied;
+        } while (applied == flushBatchSize);
+        return total;
+    }
+
+    /**
+     * Writes back the pending loans of one book in the caller's transaction. Must run before the book's
+     * copies are overwritten with an absolute value, or the next flush would apply them on top of it.
+     */
+    public int flush(String code) {
+        return apply(loanRepository.findByBookCodeCodeAndInventoryStateIn(code, PENDING));
+    }
+
+    private int flushBatch() {
+        return apply(loanRepository.findByInventoryStateInOrderById(PENDING, PageRequest.of(0, flushBatchSize)));
+    }
+
+    private int apply(List<Loan> loans) {
+        if (loans.isEmpty())
+            return 0;
+        Map<String, Integer> deltas = new TreeMap<>();
+        List<Long> ids = new ArrayList<>(loans.size());
+        for (Loan loan : loans) {
+            int delta = loan.getInventoryState() == InventoryState.CHECKOUT_PENDING ? -1 : 1;
+            deltas.merge(loan.getBookCode().getCode(), delta, Integer::sum);
+            ids.add(loan.getId());
+        }
+        deltas.forEach((code, delta) -> {
+            if (delta != 0)
+                bookRepository.adjustAvailableCopies(code, delta);
+        });
+        loanRepository.updateInventoryState(ids, InventoryState.APPLIED);
+        catalogVersion.bump();
+        flushedLoans.increment(ids.size());
+        flushedBooks.increment(deltas.size());
+        return ids.size();
+    }
+
+    private AtomicInteger counter(String code) {
+        return counters.computeIfAbsent(code, key -> new AtomicInteger(
+                bookRepository.findEffectiveAvailableCopies(key).map(Number::intValue).orElse(0)));
+    }
+
+    private void compensateOnRollback(String code, AtomicInteger counter, int delta) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive())
+            return;
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED && counters.get(code) == counter)
+                    counter.addAndGet(delta);
+            }
+        });
+    }
+}
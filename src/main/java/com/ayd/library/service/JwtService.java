@@ -1,11 +1,17 @@
 package com.ayd.library.service;
 
 import com.ayd.library.model.User;
+import com.ayd.library.security.TokenRevocationList;
+import com.ayd.library.security.VerifiedClaimsCache;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.io.Serializer;
+import io.jsonwebtoken.jackson.io.JacksonSerializer;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -13,12 +19,9 @@ import org.springframework.stereotype.Service;
 
 import java.io.IOException;
 import java.security.Key;
-import java.time.Instant;
-import java.time.temporal.ChronoUnit;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.Map;
-import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 @Service
@@ -31,51 +34,70 @@ public class JwtService {
     @Value("${token.signing.key}")
     private String jwtSigningKey;
 
-    public String generateToken(User user) throws IOException {
-        var claims = buildClaims(user);
-        return createToken(claims, user.getUsername());
-    }
+    private final VerifiedClaimsCache claimsCache;
+    private final TokenRevocationList revocationList;
+
+    private final TokenIdGenerator tokenIds = new TokenIdGenerator();
+    private final Serializer<Map<String, ?>> serializer = new JacksonSerializer<>();
 
-    private Map<String, Object> buildClaims(User user) {
-        Map<String, Object> claims = new HashMap<>();
-        claims.put("id", user.getUserId());
-        claims.put("user", user.getUsername());
-        claims.put("rol", user.getRole());
-        return claims;
+    private Key signingKey;
+    private JwtParser parser;
+    private long tokenValidMillis;
+
+    @PostConstruct
+    void init() {
+        byte[] keyBytes = Decoders.BASE64.decode(jwtSigningKey);
+        signingKey = Keys.hmacShaKeyFor(keyBytes);
+        parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+        tokenValidMillis = TimeUnit.MINUTES.toMillis(tokenValidTime);
     }
 
-    private String createToken(Map<String, Object> claims, String userName) throws IOException {
+    public String generateToken(User user) throws IOException {
+        long now = System.currentTimeMillis();
         return Jwts.builder()
-                .setClaims(claims)
-                .setId("w" + UUID.randomUUID().getLeastSignificantBits())
-                .setSubject(userName)
+                .serializeToJsonWith(serializer)
+                .claim("id", user.getUserId())
+                .claim("user", user.getUsername())
+                .claim("rol", user.getRole())
+                .claim("ver", user.getTokenVersion())
+                .setId(tokenIds.next())
+                .setSubject(user.getUsername())
                 .setAudience("CUNOC")
-                .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(Date.from(Instant.now().plus(tokenValidTime, ChronoUnit.MINUTES)))
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + tokenValidMillis))
                 .signWith(getSigningKey(), SignatureAlgorithm.HS256)
                 .compact();
     }
 
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String userName = extractUserName(token);
-        return (userName.equals(userDetails.getUsername())) && !isTokenExpired(token);
+        return isTokenValid(extractAllClaims(token), userDetails);
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    public boolean isTokenValid(Claims claims, UserDetails userDetails) {
+        return claims.getSubject().equals(userDetails.getUsername()) && !isTokenExpired(claims)
+                && !revocationList.isRevoked(claims.getId(), claims.getExpiration());
+    }
+
+    public void revokeToken(String token) {
+        var claims = extractAllClaims(token);
+        revocationList.revoke(claims.getId(), claims.getExpiration());
+        claimsCache.invalidate(token);
+    }
+
+    private boolean isTokenExpired(Claims claims) {
+        return claims.getExpiration().before(new Date());
     }
 
     public String extractUserName(String token) {
         return extractClaim(token, Claims::getSubject);
     }
 
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    public Claims extractAllClaims(String token) {
+        return claimsCache.get(token, this::verify);
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder().setSigningKey(getSigningKey()).build().parseClaimsJws(token)
-                .getBody();
+    private Claims verify(String token) {
+        return parser.parseClaimsJws(token).getBody();
     }
 
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
@@ -84,7 +106,6 @@ public class JwtService {
     }
 
     private Key getSigningKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(jwtSigningKey);
-        return Keys.hmacShaKeyFor(keyBytes);
+        return signingKey;
     }
 }
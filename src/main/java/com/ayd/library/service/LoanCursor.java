@@ -0,0 +1,29 @@
+package com.ayd.library.service;
+
+import com.ayd.library.exception.InvalidRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Opaque continuation token of the loan listing: the (loanDate, id) of the last loan returned.
+ */
+record LoanCursor(LocalDate loanDate, long id) {
+
+    String encode() {
+        String raw = loanDate + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static LoanCursor decode(String token) throws InvalidRequestException {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 2);
+            return new LoanCursor(LocalDate.parse(parts[0]), Long.parseLong(parts[1]));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new InvalidRequestException("Cursor invalido");
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package com.ayd.library.service;
+
+import com.ayd.library.dto.LoanReturnItemDto;
+import com.ayd.library.dto.LoanReturnRequestDto;
+import com.ayd.library.dto.LoanReturnResultDto;
+import com.ayd.library.enums.InventoryState;
+import com.ayd.library.exception.InvalidRequestException;
+import com.ayd.library.model.Loan;
+import com.ayd.library.repository.LoanRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Closes piles of returned loans, given by loan id or by book code (the oldest active loan of the book).
+ * Items are processed in chunks, each in its own transaction: the loans of a chunk are locked with one
+ * query per kind of reference, closed with one UPDATE ... WHERE id IN, and the copies and student counts
+ * are given back per book and per student. A failing item is reported and never rejects the others.
+ */
+@Slf4j
+@Service
+public class LoanReturnService {
+
+    private final LoanRepository loanRepository;
+    private final InventoryService inventoryService;
+    private final ActiveLoanLimiter loanLimiter;
+    private final CatalogVersion catalogVersion;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+
+    public LoanReturnService(LoanRepository loanRepository, InventoryService inventoryService, ActiveLoanLimiter loanLimiter,
+                             CatalogVersion catalogVersion, TransactionTemplate transactionTemplate, ObjectMapper objectMapper,
+                             @Value("${loans.return.chunkSize:500}") int chunkSize) {
+        this.loanRepository = loanRepository;
+        this.inventoryService = inventoryService;
+        this.loanLimiter = loanLimiter;
+        this.catalogVersion = catalogVersion;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+    }
+
+    public LoanReturnResultDto returnLoans(LoanReturnRequestDto request) throws InvalidRequestException {
+        List<LoanReturnItemDto> items = new ArrayList<>();
+        if (request.loanIds() != null)
+            request.loanIds().forEach(id -> items.add(new LoanReturnItemDto(id, null, null)));
+        if (request.bookCodes() != null)
+            request.bookCodes().forEach(code -> items.add(new LoanReturnItemDto(null, code, null)));
+        if (items.isEmpty())
+            throw new InvalidRequestException("Debe indicar al menos un prestamo o libro");
+
+        long start = System.currentTimeMillis();
+        List<LoanReturnItemDto> results = new ArrayList<>(items.size());
+        for (int from = 0; from < items.size(); from += chunkSize)
+            results.addAll(returnChunk(items.subList(from, Math.min(from + chunkSize, items.size()))));
+        return result(results, start);
+    }
+
+    /**
+     * Same as {@link #returnLoans(LoanReturnRequestDto)} for an NDJSON body of {"loanId": ...} or
+     * {"bookCode": ...} lines, processed while it is being read.
+     */
+    public LoanReturnResultDto returnLoans(InputStream body) throws IOException {
+        long start = System.currentTimeMillis();
+        var reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        List<LoanReturnItemDto> results = new ArrayList<>();
+        List<LoanReturnItemDto> chunk = new ArrayList<>(chunkSize);
+        long lineNumber = 0;
+
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank())
+                continue;
+            LoanReturnItemDto item = parse(line);
+            if (item.error() != null) {
+                results.add(new LoanReturnItemDto(null, null, "Linea " + lineNumber + ": " + item.error()));
+                continue;
+            }
+            chunk.add(item);
+            if (chunk.size() == chunkSize) {
+                results.addAll(returnChunk(chunk));
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty())
+            results.addAll(returnChunk(chunk));
+        return result(results, start);
+    }
+
+    private List<LoanReturnItemDto> returnChunk(List<LoanReturnItemDto> chunk) {
+        return transactionTemplate.execute(status -> {
+            LoanReturnItemDto[] results = new LoanReturnItemDto[chunk.size()];
+            List<Long> ids = chunk.stream().map(LoanReturnItemDto::loanId).filter(Objects::nonNull).distinct().toList();
+            Set<String> codes = chunk.stream().filter(item -> item.loanId() == null).map(LoanReturnItemDto::bookCode)
+                    .filter(Objects::nonNull).collect(Collectors.toSet());
+
+            Map<Long, Loan> loansById = new HashMap<>();
+            if (!ids.isEmpty())
+                for (Loan loan : loanRepository.findAllForReturn(ids))
+                    loansById.put(loan.getId(), loan);
+            // The query matched the codes ignoring case, so the loans are looked up the same way.
+            Map<String, Deque<Loan>> activeByBook = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+            if (!codes.isEmpty())
+                for (Loan loan : loanRepository.findActiveForReturn(codes))
+                    activeByBook.computeIfAbsent(loan.getBookCode().getCode(), code -> new ArrayDeque<>()).add(loan);
+
+            // Loans named by id go first, so a book code never takes a loan that is returned by id as well.
+            Map<Long, Loan> closing = new LinkedHashMap<>();
+            for (int i = 0; i < chunk.size(); i++) {
+                LoanReturnItemDto item = chunk.get(i);
+                if (item.loanId() == null)
+                    continue;
+                Loan loan = loansById.get(item.loanId());
+                if (loan == null)
+                    results[i] = failed(item, "No se encuentra el prestamo");
+                else if (item.bookCode() != null && !item.bookCode().equalsIgnoreCase(loan.getBookCode().getCode()))
+                    results[i] = failed(item, "El prestamo no es del libro " + item.bookCode());
+                else if (!"active".equalsIgnoreCase(loan.getStatus()) || closing.putIfAbsent(loan.getId(), loan) != null)
+                    results[i] = failed(item, "El prestamo no esta activo");
+                else
+                    results[i] = new LoanReturnItemDto(loan.getId(), loan.getBookCode().getCode(), null);
+            }
+            for (int i = 0; i < chunk.size(); i++) {
+                LoanReturnItemDto item = chunk.get(i);
+                if (item.loanId() != null)
+                    continue;
+                if (item.bookCode() == null) {
+                    results[i] = failed(item, "Debe indicar el prestamo o el libro");
+                    continue;
+                }
+                Deque<Loan> active = activeByBook.getOrDefault(item.bookCode(), new ArrayDeque<>());
+                Loan loan = active.poll();
+                while (loan != null && closing.containsKey(loan.getId()))
+                    loan = active.poll();
+                if (loan == null) {
+                    results[i] = failed(item, "No hay prestamos activos del libro");
+                    continue;
+                }
+                closing.put(loan.getId(), loan);
+                results[i] = new LoanReturnItemDto(loan.getId(), item.bookCode(), null);
+            }
+
+            if (!closing.isEmpty())
+                close(closing.values());
+            return Arrays.asList(results);
+        });
+    }
+
+    private void close(Iterable<Loan> loans) {
+        List<Long> ids = new ArrayList<>();
+        Map<String, Integer> copiesByBook = new TreeMap<>();
+        Map<String, Integer> loansByStudent = new HashMap<>();
+        for (Loan loan : loans) {
+            ids.add(loan.getId());
+            if (loan.getInventoryState() != InventoryState.UNTRACKED)
+                copiesByBook.merge(loan.getBookCode().getCode(), 1, Integer::sum);
+            loansByStudent.merge(loan.getStudent().getCarnet(), 1, Integer::sum);
+        }
+        loanRepository.markAllReturned(ids);
+        copiesByBook.forEach(inventoryService::checkin);
+        loansByStudent.forEach(loanLimiter::release);
+        catalogVersion.bump();
+    }
+
+    private LoanReturnItemDto parse(String line) {
+        try {
+            JsonNode node = objectMapper.readTree(line);
+            JsonNode loanId = node.path("loanId");
+            JsonNode bookCode = node.path("bookCode");
+            if (!loanId.isMissingNode() && !loanId.isNull() && !loanId.canConvertToLong())
+                return new LoanReturnItemDto(null, null, "loanId invalido");
+            return new LoanReturnItemDto(loanId.isIntegralNumber() ? loanId.asLong() : null,
+                    bookCode.isTextual() ? bookCode.asText() : null, null);
+        } catch (JsonProcessingException e) {
+            return new LoanReturnItemDto(null, null, "JSON invalido: " + e.getOriginalMessage());
+        }
+    }
+
+    private static LoanReturnItemDto failed(LoanReturnItemDto item, String error) {
+        return new LoanReturnItemDto(item.loanId(), item.bookCode(), error);
+    }
+
+    private static LoanReturnResultDto result(List<LoanReturnItemDto> results, long start) {
+        long failed = results.stream().filter(item -> item.error() != null).count();
+        long elapsed = System.currentTimeMillis() - start;
+        log.info("Loan returns: {} items, {} returned, {} failed in {} ms", results.size(), results.size() - failed, failed, elapsed);
+        return new LoanReturnResultDto(results.size(), results.size() - failed, failed, elapsed, results);
+    }
+}
@@ -1,31 +1,68 @@
 package com.ayd.library.service;
 
+import com.ayd.library.dto.LoanBatchItemDto;
+import com.ayd.library.dto.LoanBatchRequestDto;
+import com.ayd.library.dto.LoanBatchResultDto;
+import com.ayd.library.dto.LoanPageDto;
 import com.ayd.library.dto.LoanRequestDto;
 import com.ayd.library.dto.LoanResponseDto;
+import com.ayd.library.enums.InventoryState;
 import com.ayd.library.enums.LoanStatus;
 import com.ayd.library.exception.*;
+import com.ayd.library.model.Book;
 import com.ayd.library.model.Loan;
-import com.ayd.library.model.Student;
 import com.ayd.library.repository.LoanRepository;
 import lombok.RequiredArgsConstructor;
 import org.hibernate.Hibernate;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
 
 @Service
 @RequiredArgsConstructor
 public class LoanService {
 
+    private static final Set<String> LOAN_STATUSES = Set.of("active", "returned", "lost");
+    private static final String INSERT_LOAN_SQL = "INSERT INTO loan (loanDate, returnDate, status, totalDue, studentId, bookCode, inventoryState) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
     final LoanRepository repository;
     final StudentService studentService;
     final BookService bookService;
+    final InventoryService inventoryService;
+    final CatalogVersion catalogVersion;
+    final ActiveLoanLimiter loanLimiter;
+    final JdbcTemplate jdbcTemplate;
 
-    @Transactional
-    public Loan createLoan(LoanRequestDto loan) throws DuplicatedEntityException, NotFoundException, QuantityException, RequiredEntityException, EnoughException {
+    @Value("${loans.batch.maxBooks:10}")
+    private int maxBatchBooks;
+
+    @Value("${loans.page.defaultSize:50}")
+    private int defaultPageSize;
+
+    @Value("${loans.page.maxSize:200}")
+    private int maxPageSize;
+
+    @Transactional(rollbackFor = ServiceException.class)
+    public Loan createLoan(LoanRequestDto loan) throws DuplicatedEntityException, NotFoundException, QuantityException, RequiredEntityException, EnoughException, LoanLimitException {
         if (loan.getTotalDue().compareTo(BigDecimal.ZERO) < 0)
             throw new QuantityException("Cannot create loan without total due: " + loan.getTotalDue());
 
@@ -34,15 +71,14 @@ public class LoanService {
         }
 
         var studentEntity = studentService.getStudentByCarnet(loan.getCarnet());
-        var bookEntity = bookService.getBookByCode(loan.getBookCode());
-
-        if (bookEntity.getAvailableCopies() == 0) {
-            throw new EnoughException("Enough available copies");
-        }
+        var bookEntity = bookService.getBookReference(loan.getBookCode());
 
         if (repository.findById(loan.getId()).isPresent()) {
             throw new DuplicatedEntityException("Loan with ID already exists: " + loan.getId());
         }
+        loanLimiter.acquire(studentEntity.getCarnet());
+        inventoryService.checkout(bookEntity.getCode());
+
         Loan entity = Loan.builder()
                 .loanDate(loan.getLoanDate())
                 .returnDate(loan.getReturnDate())
@@ -50,11 +86,63 @@ public class LoanService {
                 .student(studentEntity)
                 .totalDue(loan.getTotalDue())
                 .status(LoanStatus.ACTIVE.name())
+                .inventoryState(InventoryState.CHECKOUT_PENDING)
                 .build();
 
+        catalogVersion.bump();
         return repository.save(entity);
     }
 
+    /**
+     * Lends several books to one student, all or none. Every book is checked before anything is taken;
+     * copies are then taken in code order and the loans inserted with one JDBC batch. If any book fails
+     * the transaction rolls back, the counters get their copies back and the result lists why.
+     */
+    @Transactional(rollbackFor = ServiceException.class)
+    public LoanBatchResultDto createLoans(LoanBatchRequestDto request)
+            throws InvalidRequestException, NotFoundException, LoanLimitException, LoanBatchException {
+        List<String> codes = request.bookCodes();
+        if (codes == null || codes.isEmpty() || codes.size() > maxBatchBooks)
+            throw new InvalidRequestException("Debe indicar entre 1 y " + maxBatchBooks + " libros");
+        if (codes.stream().anyMatch(Objects::isNull))
+            throw new InvalidRequestException("El codigo de libro es obligatorio");
+        BigDecimal totalDue = request.totalDue() == null ? BigDecimal.ZERO : request.totalDue();
+        if (totalDue.compareTo(BigDecimal.ZERO) < 0)
+            throw new InvalidRequestException("El total no puede ser negativo: " + totalDue);
+
+        var student = studentService.getStudentByCarnet(request.carnet());
+        Map<String, Book> books = bookService.getBookReferences(codes);
+        String[] errors = new String[codes.size()];
+        // Codes compare ignoring case like the column does, so "b1" and "B1" are the same book.
+        Map<String, Integer> positions = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (int i = 0; i < codes.size(); i++) {
+            if (positions.putIfAbsent(codes.get(i), i) != null)
+                errors[i] = "Libro repetido en la solicitud";
+            else if (!books.containsKey(codes.get(i)))
+                errors[i] = "No se encuentra el libro con el codigo: " + codes.get(i);
+        }
+        failIfAny(student.getCarnet(), codes, errors);
+        List<String> storedCodes = codes.stream().map(code -> books.get(code).getCode()).toList();
+
+        loanLimiter.acquire(student.getCarnet(), codes.size());
+        for (String code : storedCodes.stream().sorted().toList()) {
+            try {
+                inventoryService.checkout(code);
+            } catch (EnoughException e) {
+                errors[positions.get(code)] = "No hay copias disponibles";
+            }
+        }
+        failIfAny(student.getCarnet(), codes, errors);
+
+        LocalDate loanDate = request.loanDate() == null ? LocalDate.now() : request.loanDate();
+        List<Long> ids = insertLoans(student.getCarnet(), storedCodes, loanDate, request.returnDate(), totalDue);
+        catalogVersion.bump();
+        List<LoanBatchItemDto> items = new ArrayList<>(codes.size());
+        for (int i = 0; i < codes.size(); i++)
+            items.add(new LoanBatchItemDto(codes.get(i), ids.get(i), null));
+        return new LoanBatchResultDto(student.getCarnet(), true, items);
+    }
+
     @Transactional
     public Loan updateLoan(Long id, Loan updatedLoan) throws NotFoundException {
         return repository.findById(id)
@@ -64,6 +152,7 @@ public class LoanService {
                     existingLoan.setLoanDate(updatedLoan.getLoanDate());
                     existingLoan.setReturnDate(updatedLoan.getReturnDate());
                     existingLoan.setStatus(updatedLoan.getStatus());
+                    catalogVersion.bump();
                     return repository.save(existingLoan);
                 })
                 .orElseThrow(() -> new NotFoundException("Loan not found with ID: " + id));
@@ -77,19 +166,82 @@ public class LoanService {
     public List<LoanResponseDto> getAllLoans() {
         return repository.findLoanDetails();
     }
+
+    /**
+     * One page of loans, newest first. The cursor only carries the position; the filters must be sent
+     * again with every page.
+     */
+    public LoanPageDto getLoanPage(String cursor, String status, LocalDate from, LocalDate to, String carnet,
+                                   String bookCode, Integer size) throws InvalidRequestException {
+        int pageSize = size == null ? defaultPageSize : size;
+        if (pageSize < 1 || pageSize > maxPageSize)
+            throw new InvalidRequestException("El tamaño de pagina debe estar entre 1 y " + maxPageSize);
+        String loanStatus = status == null ? null : status.toLowerCase(Locale.ROOT);
+        if (loanStatus != null && !LOAN_STATUSES.contains(loanStatus))
+            throw new InvalidRequestException("Estado no soportado: " + status);
+        if (from != null && to != null && from.isAfter(to))
+            throw new InvalidRequestException("La fecha inicial no puede ser mayor a la final");
+
+        LoanCursor position = cursor == null ? null : LoanCursor.decode(cursor);
+        List<LoanResponseDto> loans = repository.findPage(loanStatus, from, to, carnet, bookCode,
+                position == null ? null : position.loanDate(),
+                position == null ? null : position.id(),
+                pageSize + 1);
+        if (loans.size() <= pageSize)
+            return new LoanPageDto(loans, null);
+
+        loans = loans.subList(0, pageSize);
+        LoanResponseDto last = loans.get(pageSize - 1);
+        return new LoanPageDto(loans, new LoanCursor(last.getLoanDate(), last.getId()).encode());
+    }
     @Transactional
     public Loan closeLoan(Long id) throws NotFoundException {
         Loan loan = repository.findById(id)
                 .orElseThrow(() -> new NotFoundException("Loan not found with ID: " + id));
+        if (repository.markReturned(id) == 1) {
+            loanLimiter.release(loan.getStudent().getCarnet());
+            if (loan.getInventoryState() != InventoryState.UNTRACKED)
+                inventoryService.checkin(loan.getBookCode().getCode());
+        }
         loan.setStatus("returned");
+        catalogVersion.bump();
         return repository.save(loan);
     }
     public List<Loan> findLoansByStatus(String status) {
         return repository.findAllByStatus(status);
     }
 
-    private Integer loanActiveByStudent(Student student) {
+    private static void failIfAny(String carnet, List<String> codes, String[] errors) throws LoanBatchException {
+        if (Arrays.stream(errors).allMatch(error -> error == null))
+            return;
+        List<LoanBatchItemDto> items = new ArrayList<>(codes.size());
+        for (int i = 0; i < codes.size(); i++)
+            items.add(new LoanBatchItemDto(codes.get(i), null, errors[i]));
+        throw new LoanBatchException("No se pudo prestar todos los libros", new LoanBatchResultDto(carnet, false, items));
+    }
 
-        return null;
+    private List<Long> insertLoans(String carnet, List<String> codes, LocalDate loanDate, LocalDate returnDate,
+                                   BigDecimal totalDue) {
+        return jdbcTemplate.execute((ConnectionCallback<List<Long>>) connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_LOAN_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                for (String code : codes) {
+                    statement.setDate(1, Date.valueOf(loanDate));
+                    statement.setDate(2, returnDate == null ? null : Date.valueOf(returnDate));
+                    statement.setString(3, LoanStatus.ACTIVE.name());
+                    statement.setBigDecimal(4, totalDue);
+                    statement.setString(5, carnet);
+                    statement.setString(6, code);
+                    statement.setString(7, InventoryState.CHECKOUT_PENDING.name());
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+                List<Long> ids = new ArrayList<>(codes.size());
+                try (ResultSet keys = statement.getGeneratedKeys()) {
+                    while (keys.next())
+                        ids.add(keys.getLong(1));
+                }
+                return ids;
+            }
+        });
     }
 }
@@ -0,0 +1,99 @@
+package com.ayd.library.service;
+
+import com.ayd.library.dto.OverdueLoanDto;
+import com.ayd.library.repository.LoanRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sets the fine of every active loan past its return date. Loans are walked in (returnDate, id) order,
+ * a chunk at a time; a chunk is written with one UPDATE per distinct fine, in its own short transaction.
+ * The fine is recomputed from the return date instead of added to, and rows that already hold it are
+ * not written, so a run can be repeated or restarted at any point.
+ */
+@Slf4j
+@Service
+public class OverdueFineJob {
+
+    private final LoanRepository loanRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final FinePolicy finePolicy;
+    private final CatalogVersion catalogVersion;
+    private final int chunkSize;
+    private final Counter scannedLoans;
+    private final Counter finedLoans;
+    private final Timer runs;
+    private final AtomicLong progress = new AtomicLong();
+
+    public OverdueFineJob(LoanRepository loanRepository, TransactionTemplate transactionTemplate, FinePolicy finePolicy,
+                          CatalogVersion catalogVersion,
+                          @Value("${loans.fines.chunkSize:1000}") int chunkSize,
+                          MeterRegistry meterRegistry) {
+        this.loanRepository = loanRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.finePolicy = finePolicy;
+        this.catalogVersion = catalogVersion;
+        this.chunkSize = chunkSize;
+        this.scannedLoans = meterRegistry.counter("loans.fines.scanned");
+        this.finedLoans = meterRegistry.counter("loans.fines.updated");
+        this.runs = meterRegistry.timer("loans.fines.run");
+        Gauge.builder("loans.fines.progress", progress, AtomicLong::get).register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${loans.fines.cron:0 30 0 * * *}")
+    public void runDaily() {
+        run(LocalDate.now());
+    }
+
+    /**
+     * Computes the fines as of the given day and returns how many loans changed.
+     */
+    public int run(LocalDate asOf) {
+        long start = System.nanoTime();
+        progress.set(0);
+        int total = 0;
+        List<OverdueLoanDto> chunk = loanRepository.findOverdue(asOf, PageRequest.ofSize(chunkSize));
+        while (!chunk.isEmpty()) {
+            Map<BigDecimal, List<Long>> idsByFine = new HashMap<>();
+            for (OverdueLoanDto loan : chunk)
+                idsByFine.computeIfAbsent(finePolicy.fineFor(loan.returnDate(), asOf), fine -> new ArrayList<>()).add(loan.id());
+
+            Integer changed = transactionTemplate.execute(status -> {
+                int rows = 0;
+                for (var entry : idsByFine.entrySet())
+                    rows += loanRepository.updateFine(entry.getValue(), entry.getKey());
+                if (rows > 0)
+                    catalogVersion.bump();
+                return rows;
+            });
+            total += changed;
+            scannedLoans.increment(chunk.size());
+            finedLoans.increment(changed);
+            progress.addAndGet(chunk.size());
+
+            OverdueLoanDto last = chunk.get(chunk.size() - 1);
+            log.info("Overdue fines: {} loans scanned, {} changed, at returnDate {}", progress.get(), total, last.returnDate());
+            chunk = chunk.size() < chunkSize ? List.of()
+                    : loanRepository.findOverdueAfter(asOf, last.returnDate(), last.id(), PageRequest.ofSize(chunkSize));
+        }
+        runs.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return total;
+    }
+}
@@ -0,0 +1,109 @@
+package com.ayd.library.service;
+
+import com.ayd.library.model.JobCheckpoint;
+import com.ayd.library.repository.JobCheckpointRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.regex.Pattern;
+
+/**
+ * Hashes every password still stored in plain text. Users are walked in userId order, a chunk at a time;
+ * each chunk is hashed in parallel, written with one JDBC batch and committed together with the last
+ * processed userId, so a crashed run resumes where it stopped. Rows that already hold a BCrypt hash are
+ * skipped, which makes the job safe to run more than once.
+ */
+@Slf4j
+@Service
+public class PasswordRehashJob {
+
+    static final String JOB_NAME = "password-rehash";
+    private static final Pattern BCRYPT_PATTERN = Pattern.compile("\\A\\$2([ayb])?\\$(\\d\\d)\\$[./0-9A-Za-z]{53}");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final JobCheckpointRepository checkpointRepository;
+    private final PasswordEncoder encoder;
+    private final UserService userService;
+    private final int chunkSize;
+    private final int parallelism;
+    private final boolean runOnStartup;
+
+    public PasswordRehashJob(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                             JobCheckpointRepository checkpointRepository, PasswordEncoder encoder, UserService userService,
+                             @Value("${users.rehash.chunkSize:500}") int chunkSize,
+                             @Value("${users.rehash.parallelism:0}") int parallelism,
+                             @Value("${users.rehash.runOnStartup:false}") boolean runOnStartup) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.checkpointRepository = checkpointRepository;
+        this.encoder = encoder;
+        this.userService = userService;
+        this.chunkSize = chunkSize;
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.runOnStartup = runOnStartup;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        if (runOnStartup)
+            run();
+    }
+
+    public int run() {
+        var pool = new ForkJoinPool(parallelism);
+        try {
+            long lastId = checkpointRepository.findById(JOB_NAME).map(JobCheckpoint::getLastId).orElse(0L);
+            int total = 0;
+            while (true) {
+                var rows = jdbcTemplate.query("SELECT userId, username, password FROM User WHERE userId > ? ORDER BY userId LIMIT ?",
+                        (rs, i) -> new UserPassword(rs.getLong(1), rs.getString(2), rs.getString(3)), lastId, chunkSize);
+                if (rows.isEmpty())
+                    break;
+
+                var pending = rows.stream().filter(row -> !isHashed(row.password())).toList();
+                var hashed = pool.submit(() -> pending.parallelStream()
+                        .map(row -> new Object[]{encoder.encode(row.password()), row.userId(), row.password()})
+                        .toList()).get();
+                long chunkLastId = rows.get(rows.size() - 1).userId();
+
+                transactionTemplate.executeWithoutResult(status -> {
+                    if (!hashed.isEmpty())
+                        jdbcTemplate.batchUpdate("UPDATE User SET password = ? WHERE userId = ? AND password = ?", hashed);
+                    checkpointRepository.save(new JobCheckpoint(JOB_NAME, chunkLastId, LocalDateTime.now()));
+                });
+                pending.forEach(row -> userService.evictUserDetails(row.username()));
+
+                total += pending.size();
+                lastId = chunkLastId;
+                log.info("Password rehash: {} passwords hashed, checkpoint at userId {}", total, lastId);
+            }
+            checkpointRepository.deleteById(JOB_NAME);
+            return total;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Password rehash interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Password rehash failed", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static boolean isHashed(String password) {
+        return password != null && BCRYPT_PATTERN.matcher(password).matches();
+    }
+
+    private record UserPassword(Long userId, String username, String password) {
+    }
+}
@@ -0,0 +1,113 @@
+package com.ayd.library.service;
+
+import com.ayd.library.dto.user.AuthTokensDto;
+import com.ayd.library.exception.InvalidTokenException;
+import com.ayd.library.exception.ServiceException;
+import com.ayd.library.model.RefreshToken;
+import com.ayd.library.model.User;
+import com.ayd.library.repository.RefreshTokenRepository;
+import com.ayd.library.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@Service
+@RequiredArgsConstructor
+public class RefreshTokenService {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final RefreshTokenRepository repository;
+    private final UserRepository userRepository;
+    private final JwtService jwtService;
+
+    @Value("${token.refresh.validDays:14}")
+    private long refreshValidDays;
+
+    @Transactional
+    public String issue(User user) {
+        return issue(user.getUserId(), UUID.randomUUID().toString());
+    }
+
+    /**
+     * Exchanges a refresh token for a new access token and a new refresh token of the same family. A token
+     * that was already exchanged is a sign of theft, so presenting it again revokes the whole family.
+     */
+    @Transactional(noRollbackFor = InvalidTokenException.class)
+    public AuthTokensDto rotate(String rawToken) throws ServiceException, IOException {
+        var refreshToken = repository.findByTokenHash(hash(rawToken))
+                .orElseThrow(() -> new InvalidTokenException("Invalid refresh token"));
+
+        if (refreshToken.getRevoked() || refreshToken.getExpiresAt() <= System.currentTimeMillis())
+            throw new InvalidTokenException("Refresh token expired or revoked");
+
+        if (refreshToken.getUsed()) {
+            repository.revokeFamily(refreshToken.getFamilyId());
+            throw new InvalidTokenException("Refresh token reuse detected");
+        }
+
+        var user = userRepository.findById(refreshToken.getUserId())
+                .filter(found -> found.getStatus() == 1)
+                .orElseThrow(() -> new InvalidTokenException("User is disabled"));
+
+        refreshToken.setUsed(true);
+        repository.save(refreshToken);
+        return new AuthTokensDto(jwtService.generateToken(user), issue(user.getUserId(), refreshToken.getFamilyId()));
+    }
+
+    @Transactional
+    public void revoke(String rawToken) {
+        repository.findByTokenHash(hash(rawToken))
+                .ifPresent(refreshToken -> repository.revokeFamily(refreshToken.getFamilyId()));
+    }
+
+    /**
+     * Revokes every family of the user; called whenever the user's tokenVersion moves.
+     */
+    @Transactional
+    public void revokeAllForUser(Long userId) {
+        repository.revokeAllForUser(userId);
+    }
+
+    @Transactional
+    @Scheduled(fixedDelayString = "${token.refresh.purgeIntervalMillis:3600000}")
+    public void purgeExpired() {
+        repository.deleteExpired(System.currentTimeMillis());
+    }
+
+    private String issue(Long userId, String familyId) {
+        byte[] bytes = new byte[32];
+        RANDOM.nextBytes(bytes);
+        var rawToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        repository.save(RefreshToken.builder()
+                .tokenHash(hash(rawToken))
+                .familyId(familyId)
+                .userId(userId)
+                .expiresAt(System.currentTimeMillis() + TimeUnit.DAYS.toMillis(refreshValidDays))
+                .used(false)
+                .revoked(false)
+                .build());
+        return rawToken;
+    }
+
+    private static String hash(String rawToken) {
+        try {
+            var digest = MessageDigest.getInstance("SHA-256").digest(rawToken.getBytes(StandardCharsets.US_ASCII));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -26,6 +26,10 @@ public class ReservationService {
 
     final BookService bookService;
 
+    final InventoryService inventoryService;
+
+    final CatalogVersion catalogVersion;
+
     @Transactional
     public Reservation  createReservation(ReservationRequestDto reservation) throws DuplicatedEntityException, RequiredEntityException, NotFoundException, EnoughException {
         if (reservation.getBookCode() == null) {
@@ -33,9 +37,9 @@ public class ReservationService {
         }
 
         var studentEntity = studentService.getStudentByCarnet(reservation.getCarnet());
-        var bookEntity = bookService.getBookByCode(reservation.getBookCode());
+        var bookEntity = bookService.getBookReference(reservation.getBookCode());
 
-        if (bookEntity.getAvailableCopies() == 0) {
+        if (inventoryService.available(bookEntity.getCode()) <= 0) {
             throw new EnoughException("Not enough available copies");
         }
 
@@ -50,6 +54,7 @@ public class ReservationService {
                 .student(studentEntity)
                 .build();
 
+        catalogVersion.bump();
         return repository.save(entity);
     }
 
@@ -61,6 +66,7 @@ public class ReservationService {
                     existingReservation.setStudent(updatedReservation.getStudent());
                     existingReservation.setReservationDate(updatedReservation.getReservationDate());
                     existingReservation.setStatus(updatedReservation.getStatus());
+                    catalogVersion.bump();
                     return repository.save(existingReservation);
                 })
                 .orElseThrow(() -> new NotFoundException("Reservation not found with ID: " + id));
@@ -81,6 +87,7 @@ public class ReservationService {
         Reservation reservation = repository.findById(id)
                 .orElseThrow(() -> new NotFoundException("Reservation not found with ID: " + id));
         reservation.setStatus(status);
+        catalogVersion.bump();
         return repository.save(reservation);
     }
 
@@ -0,0 +1,22 @@
+package com.ayd.library.service;
+
+import java.security.SecureRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Unique token ids without touching a shared SecureRandom per token: a random per-instance prefix drawn
+ * once at startup, followed by a lock-free sequence.
+ */
+class TokenIdGenerator {
+
+    private final String prefix;
+    private final AtomicLong sequence = new AtomicLong();
+
+    TokenIdGenerator() {
+        this.prefix = "w" + Long.toString(new SecureRandom().nextLong() & Long.MAX_VALUE, 36) + ".";
+    }
+
+    String next() {
+        return prefix.concat(Long.toString(sequence.getAndIncrement(), 36));
+    }
+}
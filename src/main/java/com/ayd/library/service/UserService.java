@@ -1,32 +1,92 @@
 package com.ayd.library.service;
 
+import com.ayd.library.dto.user.UserSecurityStampDto;
 import com.ayd.library.enums.Rol;
 import com.ayd.library.exception.NotFoundException;
 import com.ayd.library.exception.ServiceException;
 import com.ayd.library.model.User;
 import com.ayd.library.repository.UserRepository;
-import lombok.RequiredArgsConstructor;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import com.ayd.library.model.UserInfoDetails;
 
-import java.util.List;
+import java.time.Duration;
 
 @Service
-@RequiredArgsConstructor
 public class UserService {
 
     private final UserRepository userRepository;
-    private BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
+    private final PasswordEncoder passwordEncoder;
+    private final LoadingCache<Long, UserSecurityStampDto> securityStamps;
+    private final Cache<String, UserInfoDetails> userDetails;
+
+    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder,
+                       @Value("${token.securityStamp.ttlSeconds:30}") long securityStampTtl,
+                       @Value("${users.cache.maxSize:5000}") long userCacheSize,
+                       @Value("${users.cache.ttlSeconds:300}") long userCacheTtl,
+                       MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.securityStamps = Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterWrite(Duration.ofSeconds(securityStampTtl))
+                .recordStats()
+                .build(id -> userRepository.findSecurityStampByUserId(id).orElse(null));
+        this.userDetails = Caffeine.newBuilder()
+                .maximumSize(userCacheSize)
+                .expireAfterWrite(Duration.ofSeconds(userCacheTtl))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, securityStamps, "users.securityStamps");
+        CaffeineCacheMetrics.monitor(meterRegistry, userDetails, "users.details");
+        Gauge.builder("users.details.hit.ratio", userDetails, cache -> cache.stats().hitRate())
+                .register(meterRegistry);
+    }
 
 
     public UserDetailsService userDetailsService() {
-        return username -> userRepository.findByUsername(username)
-                .map(UserInfoDetails::new)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+        return username -> {
+            var details = userDetails.get(username, key -> userRepository.findByUsername(key)
+                    .map(UserInfoDetails::new)
+                    .orElse(null));
+            if (details == null)
+                throw new UsernameNotFoundException("User not found");
+            return details;
+        };
+    }
+
+    public void evictUserDetails(String username) {
+        if (username != null)
+            userDetails.invalidate(username);
+    }
+
+    public void evictUser(User user) {
+        evictUserDetails(user.getUsername());
+        evictSecurityStamp(user.getUserId());
+    }
+
+    public UserInfoDetails principalFromClaims(Claims claims) {
+        var userId = claims.get("id", Long.class);
+        var version = claims.get("ver", Integer.class);
+        var stamp = securityStamps.get(userId);
+        if (stamp == null || !stamp.accepts(version))
+            return null;
+        return new UserInfoDetails(userId, claims.getSubject(), Rol.valueOf(claims.get("rol", String.class)));
+    }
+
+    public void evictSecurityStamp(Long userId) {
+        securityStamps.invalidate(userId);
     }
 
     public User findById(Long id) throws ServiceException {
@@ -48,15 +108,9 @@ public class UserService {
                 .role(rol)
                 .build();
         userRepository.save(user);
+        evictUserDetails(username);
         return user;
     }
-    public void encodeExistingPasswords() {
-        List<User> users = userRepository.findAll();
-        for (User user : users) {
-            user.setPassword(passwordEncoder.encode(user.getPassword()));
-            userRepository.save(user);
-        }
-    }
 
 
 }
@@ -23,7 +23,10 @@ CREATE TABLE Book (
     publicationDate DATE,
     publisher VARCHAR(255),
     availableCopies INT NOT NULL,
-    status TINYINT(1) DEFAULT 1
+    status TINYINT(1) DEFAULT 1,
+    INDEX idx_book_status_code (status, code),
+    INDEX idx_book_status_title (status, title, code),
+    INDEX idx_book_status_author (status, author, code)
 );
 
 CREATE TABLE Loan (
@@ -32,10 +35,19 @@ CREATE TABLE Loan (
     returnDate DATE,
     status ENUM('active', 'returned', 'lost') NOT NULL,
     totalDue DECIMAL(10, 2),
+    fine DECIMAL(10, 2) NOT NULL DEFAULT 0,
     studentId VARCHAR(10) NOT NULL,
     bookCode VARCHAR(20) NOT NULL,
+    inventoryState VARCHAR(20) NOT NULL DEFAULT 'UNTRACKED',
     FOREIGN KEY (studentId) REFERENCES Student(id),
-    FOREIGN KEY (bookCode) REFERENCES Book(code)
+    FOREIGN KEY (bookCode) REFERENCES Book(code),
+    INDEX idx_loan_inventory_state (inventoryState),
+    INDEX idx_loan_book_inventory (bookCode, inventoryState),
+    INDEX idx_loan_date (loanDate, id),
+    INDEX idx_loan_status_date (status, loanDate, id),
+    INDEX idx_loan_student_date (studentId, loanDate, id),
+    INDEX idx_loan_book_date (bookCode, loanDate, id),
+    INDEX idx_loan_status_return (status, returnDate, id)
 );
 
 CREATE TABLE Reservation (
@@ -55,7 +67,33 @@ CREATE TABLE User (
     email VARCHAR(45) NOT NULL,
     username VARCHAR(45) NOT NULL UNIQUE,
     password VARCHAR(500) NOT NULL,
-    status SMALLINT
+    status SMALLINT,
+    tokenVersion INT NOT NULL DEFAULT 0
+);
+
+CREATE TABLE JobCheckpoint (
+    jobName VARCHAR(100) PRIMARY KEY,
+    lastId BIGINT NOT NULL,
+    updatedAt DATETIME NOT NULL
+);
+
+CREATE TABLE RevokedToken (
+    jti VARCHAR(64) PRIMARY KEY,
+    expiresAt BIGINT NOT NULL,
+    INDEX idx_revoked_token_expires (expiresAt)
+);
+
+CREATE TABLE RefreshToken (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    tokenHash CHAR(64) NOT NULL UNIQUE,
+    familyId CHAR(36) NOT NULL,
+    userId BIGINT NOT NULL,
+    expiresAt BIGINT NOT NULL,
+    used TINYINT(1) NOT NULL DEFAULT 0,
+    revoked TINYINT(1) NOT NULL DEFAULT 0,
+    INDEX idx_refresh_token_family (familyId),
+    INDEX idx_refresh_token_expires (expiresAt),
+    FOREIGN KEY (userId) REFERENCES User(userId)
 );
 
 INSERT INTO User(role, name, email, username, password, status)
@@ -0,0 +1,52 @@
+USE library_ayd;
+
+-- Token version bumped on every user edit, checked by stateless JWT authentication
+ALTER TABLE User ADD COLUMN IF NOT EXISTS tokenVersion INT NOT NULL DEFAULT 0;
+
+-- Progress of resumable batch jobs
+CREATE TABLE IF NOT EXISTS JobCheckpoint (
+    jobName VARCHAR(100) PRIMARY KEY,
+    lastId BIGINT NOT NULL,
+    updatedAt DATETIME NOT NULL
+);
+
+-- Tokens revoked before their expiration (POST /auth/logout)
+CREATE TABLE IF NOT EXISTS RevokedToken (
+    jti VARCHAR(64) PRIMARY KEY,
+    expiresAt BIGINT NOT NULL,
+    INDEX idx_revoked_token_expires (expiresAt)
+);
+
+-- Rotating refresh tokens (POST /auth/refresh)
+CREATE TABLE IF NOT EXISTS RefreshToken (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    tokenHash CHAR(64) NOT NULL UNIQUE,
+    familyId CHAR(36) NOT NULL,
+    userId BIGINT NOT NULL,
+    expiresAt BIGINT NOT NULL,
+    used TINYINT(1) NOT NULL DEFAULT 0,
+    revoked TINYINT(1) NOT NULL DEFAULT 0,
+    INDEX idx_refresh_token_family (familyId),
+    INDEX idx_refresh_token_expires (expiresAt),
+    FOREIGN KEY (userId) REFERENCES User(userId)
+);
+
+-- Keyset pages of the catalog (GET /books)
+CREATE INDEX IF NOT EXISTS idx_book_status_code ON Book (status, code);
+CREATE INDEX IF NOT EXISTS idx_book_status_title ON Book (status, title, code);
+CREATE INDEX IF NOT EXISTS idx_book_status_author ON Book (status, author, code);
+
+-- Write-behind of book availability: which loans are already reflected in Book.availableCopies
+ALTER TABLE Loan ADD COLUMN IF NOT EXISTS inventoryState VARCHAR(20) NOT NULL DEFAULT 'UNTRACKED';
+CREATE INDEX IF NOT EXISTS idx_loan_inventory_state ON Loan (inventoryState);
+CREATE INDEX IF NOT EXISTS idx_loan_book_inventory ON Loan (bookCode, inventoryState);
+
+-- Keyset pages of loans (GET /loans/page), one per filter that narrows the most
+CREATE INDEX IF NOT EXISTS idx_loan_date ON Loan (loanDate, id);
+CREATE INDEX IF NOT EXISTS idx_loan_status_date ON Loan (status, loanDate, id);
+CREATE INDEX IF NOT EXISTS idx_loan_student_date ON Loan (studentId, loanDate, id);
+CREATE INDEX IF NOT EXISTS idx_loan_book_date ON Loan (bookCode, loanDate, id);
+
+-- Overdue fines, recomputed by the fine job over active loans in returnDate order
+ALTER TABLE Loan ADD COLUMN IF NOT EXISTS fine DECIMAL(10, 2) NOT NULL DEFAULT 0;
+CREATE INDEX IF NOT EXISTS idx_loan_status_return ON Loan (status, returnDate, id);
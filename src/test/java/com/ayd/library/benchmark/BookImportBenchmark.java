@@ -0,0 +1,121 @@
+package com.ayd.library.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.testcontainers.containers.MariaDBContainer;
+
+import java.sql.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to load 10k books the way createBook does it (duplicate check and INSERT per row, one
+ * transaction each) against the way BookImportService does it (one IN lookup and one JDBC batch per
+ * 1000 rows). Needs Docker for the MariaDB container. Run main() with the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(1)
+public class BookImportBenchmark {
+
+    private static final int ROWS = 10_000;
+    private static final int CHUNK = 1_000;
+    private static final String INSERT = "INSERT INTO book (code, title, author, publicationDate, publisher, availableCopies, status) " +
+            "VALUES (?, ?, ?, ?, ?, ?, 1)";
+
+    private MariaDBContainer<?> mariaDB;
+    private Connection connection;
+
+    @Setup
+    public void startDatabase() throws SQLException {
+        mariaDB = new MariaDBContainer<>("mariadb:10.5.8");
+        mariaDB.start();
+        connection = DriverManager.getConnection(mariaDB.getJdbcUrl(), mariaDB.getUsername(), mariaDB.getPassword());
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE book (code VARCHAR(20) PRIMARY KEY, title VARCHAR(255) NOT NULL, " +
+                    "author VARCHAR(255) NOT NULL, publicationDate DATE, publisher VARCHAR(255), " +
+                    "availableCopies INT NOT NULL, status TINYINT(1) DEFAULT 1)");
+        }
+        connection.setAutoCommit(false);
+    }
+
+    @Setup(Level.Invocation)
+    public void truncate() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("TRUNCATE TABLE book");
+        }
+        connection.commit();
+    }
+
+    @TearDown
+    public void stopDatabase() throws SQLException {
+        connection.close();
+        mariaDB.stop();
+    }
+
+    @Benchmark
+    public int rowByRow() throws SQLException {
+        int inserted = 0;
+        try (PreparedStatement exists = connection.prepareStatement("SELECT 1 FROM Book WHERE code = ?");
+             PreparedStatement insert = connection.prepareStatement(INSERT)) {
+            for (int i = 0; i < ROWS; i++) {
+                exists.setString(1, code(i));
+                try (ResultSet rs = exists.executeQuery()) {
+                    if (rs.next())
+                        continue;
+                }
+                bind(insert, i);
+                inserted += insert.executeUpdate();
+                connection.commit();
+            }
+        }
+        return inserted;
+    }
+
+    @Benchmark
+    public int chunkedBatch() throws SQLException {
+        int inserted = 0;
+        String lookup = "SELECT code FROM Book WHERE code IN (" + "?,".repeat(CHUNK - 1) + "?)";
+        try (PreparedStatement exists = connection.prepareStatement(lookup);
+             PreparedStatement insert = connection.prepareStatement(INSERT)) {
+            for (int start = 0; start < ROWS; start += CHUNK) {
+                for (int i = 0; i < CHUNK; i++)
+                    exists.setString(i + 1, code(start + i));
+                try (ResultSet rs = exists.executeQuery()) {
+                    while (rs.next())
+                        inserted--;
+                }
+                for (int i = start; i < start + CHUNK; i++) {
+                    bind(insert, i);
+                    insert.addBatch();
+                }
+                inserted += insert.executeBatch().length;
+                connection.commit();
+            }
+        }
+        return inserted;
+    }
+
+    private static void bind(PreparedStatement insert, int i) throws SQLException {
+        insert.setString(1, code(i));
+        insert.setString(2, "Titulo " + i);
+        insert.setString(3, "Autor " + (i % 500));
+        insert.setDate(4, Date.valueOf("2020-01-01"));
+        insert.setString(5, "Editorial " + (i % 50));
+        insert.setInt(6, 3);
+    }
+
+    private static String code(int i) {
+        return "IMP" + i;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(BookImportBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
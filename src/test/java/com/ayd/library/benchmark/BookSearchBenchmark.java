@@ -0,0 +1,82 @@
+package com.ayd.library.benchmark;
+
+import com.ayd.library.exception.ServiceUnavailableException;
+import com.ayd.library.repository.BookRepository;
+import com.ayd.library.search.BookSearchIndex;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Query latency of the book search index over a synthetic 500k-title catalog built from a small
+ * Spanish vocabulary, so common words match tens of thousands of books.
+ * Run main() with the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class BookSearchBenchmark {
+
+    private static final String[] WORDS = {"historia", "guatemala", "dragón", "cocina", "poesía", "cuentos",
+            "ciencia", "matemática", "física", "química", "biología", "derecho", "economía", "filosofía", "arte",
+            "música", "teatro", "novela", "viaje", "mar", "montaña", "ciudad", "noche", "sol", "luna", "tiempo",
+            "amor", "guerra", "paz", "memoria", "sombra", "río", "volcán", "maya", "quetzal", "selva", "camino",
+            "destino", "silencio", "fuego", "agua", "tierra", "aire", "corazón", "sueño", "libro", "palabra"};
+    private static final String[] NAMES = {"Martínez", "Pérez", "López", "García", "Hernández", "González",
+            "Rodríguez", "Ramírez", "Asturias", "Monterroso", "Cardoza", "Arévalo", "Menchú", "Galich"};
+
+    @Param({"500000"})
+    private int books;
+
+    private BookSearchIndex index;
+
+    @Setup
+    public void setUp() {
+        BookRepository repository = Mockito.mock(BookRepository.class);
+        Mockito.when(repository.findActivePage(Mockito.any(), Mockito.anyBoolean(), Mockito.any(), Mockito.any(),
+                Mockito.anyInt(), Mockito.any())).thenReturn(List.of());
+        index = new BookSearchIndex(repository, 1000);
+        index.rebuild();
+
+        Random random = new Random(42);
+        for (int i = 0; i < books; i++) {
+            String title = word(random) + " " + word(random) + " " + word(random) + " " + i;
+            String author = NAMES[random.nextInt(NAMES.length)] + " " + NAMES[random.nextInt(NAMES.length)];
+            index.put("B" + i, title, author, "Editorial " + NAMES[random.nextInt(NAMES.length)]);
+        }
+    }
+
+    private static String word(Random random) {
+        return WORDS[random.nextInt(WORDS.length)];
+    }
+
+    @Benchmark
+    public List<String> rareTerm() throws ServiceUnavailableException {
+        return index.search("123456", 20);
+    }
+
+    @Benchmark
+    public List<String> commonTerms() throws ServiceUnavailableException {
+        return index.search("historia de guatemala", 20);
+    }
+
+    @Benchmark
+    public List<String> titleAndAuthor() throws ServiceUnavailableException {
+        return index.search("volcan asturias", 20);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(BookSearchBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,67 @@
+package com.ayd.library.benchmark;
+
+import com.ayd.library.dto.BookSuggestionDto;
+import com.ayd.library.search.SuggestionIndex;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Suggestion latency distribution (see the p0.99 rows) over 500k synthetic titles plus their
+ * authors, from one-letter prefixes that cover a large share of the index to nearly unique ones.
+ * The index size is printed at setup. Run main() with the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class BookSuggestBenchmark {
+
+    private static final String[] WORDS = {"historia", "guatemala", "dragón", "cocina", "poesía", "cuentos",
+            "ciencia", "matemática", "física", "química", "biología", "derecho", "economía", "filosofía", "arte",
+            "música", "teatro", "novela", "viaje", "mar", "montaña", "ciudad", "noche", "sol", "luna", "tiempo"};
+    private static final String[] NAMES = {"Martínez", "Pérez", "López", "García", "Hernández", "González",
+            "Rodríguez", "Ramírez", "Asturias", "Monterroso", "Cardoza", "Arévalo", "Menchú", "Galich"};
+
+    @Param({"500000"})
+    private int books;
+
+    @Param({"h", "historia g", "cocina sol luna 4"})
+    private String prefix;
+
+    private SuggestionIndex index;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        var builder = SuggestionIndex.builder();
+        for (int i = 0; i < books; i++) {
+            builder.add(word(random) + " " + word(random) + " " + word(random) + " " + i, SuggestionIndex.TITLE);
+            builder.add(NAMES[random.nextInt(NAMES.length)] + " " + NAMES[random.nextInt(NAMES.length)], SuggestionIndex.AUTHOR);
+        }
+        index = builder.build();
+        System.out.printf("%nsuggestion index: %d entries, %d bytes%n", index.size(), index.memoryBytes());
+    }
+
+    private static String word(Random random) {
+        return WORDS[random.nextInt(WORDS.length)];
+    }
+
+    @Benchmark
+    public List<BookSuggestionDto> suggest() {
+        return index.suggest(prefix, 10);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(BookSuggestBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,117 @@
+package com.ayd.library.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.testcontainers.containers.MariaDBContainer;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Checkout throughput when every thread hits the same book row: a conditional UPDATE and a
+ * SELECT ... FOR UPDATE followed by an UPDATE, each in its own transaction, against the compare-and-set
+ * on an in-memory counter that InventoryService admits checkouts with (its write-behind costs one UPDATE
+ * per book and flush interval, not per checkout). Needs Docker for the MariaDB container. Run main() with
+ * the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(16)
+@Fork(1)
+public class HotTitleCheckoutBenchmark {
+
+    private MariaDBContainer<?> mariaDB;
+    private final AtomicInteger counter = new AtomicInteger(2_000_000_000);
+
+    @Setup
+    public void startDatabase() throws SQLException {
+        mariaDB = new MariaDBContainer<>("mariadb:10.5.8");
+        mariaDB.start();
+        try (Connection connection = connect(this); Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE Book (code VARCHAR(20) PRIMARY KEY, availableCopies INT NOT NULL)");
+            statement.execute("INSERT INTO Book VALUES ('HOT', 2000000000)");
+        }
+    }
+
+    @TearDown
+    public void stopDatabase() {
+        mariaDB.stop();
+    }
+
+    @State(Scope.Thread)
+    public static class Session {
+
+        Connection connection;
+        PreparedStatement conditionalUpdate;
+        PreparedStatement selectForUpdate;
+        PreparedStatement update;
+
+        @Setup
+        public void open(HotTitleCheckoutBenchmark benchmark) throws SQLException {
+            connection = connect(benchmark);
+            connection.setAutoCommit(false);
+            conditionalUpdate = connection.prepareStatement(
+                    "UPDATE Book SET availableCopies = availableCopies - 1 WHERE code = 'HOT' AND availableCopies > 0");
+            selectForUpdate = connection.prepareStatement("SELECT availableCopies FROM Book WHERE code = 'HOT' FOR UPDATE");
+            update = connection.prepareStatement("UPDATE Book SET availableCopies = ? WHERE code = 'HOT'");
+        }
+
+        @TearDown
+        public void close() throws SQLException {
+            connection.close();
+        }
+    }
+
+    @Benchmark
+    public int conditionalUpdate(Session session) throws SQLException {
+        int updated = session.conditionalUpdate.executeUpdate();
+        session.connection.commit();
+        return updated;
+    }
+
+    @Benchmark
+    public int selectForUpdateThenUpdate(Session session) throws SQLException {
+        int updated = 0;
+        try (ResultSet rs = session.selectForUpdate.executeQuery()) {
+            if (rs.next() && rs.getInt(1) > 0) {
+                session.update.setInt(1, rs.getInt(1) - 1);
+                updated = session.update.executeUpdate();
+            }
+        }
+        session.connection.commit();
+        return updated;
+    }
+
+    @Benchmark
+    public boolean inMemoryCounter() {
+        int available;
+        do {
+            available = counter.get();
+            if (available <= 0)
+                return false;
+        } while (!counter.compareAndSet(available, available - 1));
+        return true;
+    }
+
+    private static Connection connect(HotTitleCheckoutBenchmark benchmark) throws SQLException {
+        return DriverManager.getConnection(benchmark.mariaDB.getJdbcUrl(), benchmark.mariaDB.getUsername(),
+                benchmark.mariaDB.getPassword());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(HotTitleCheckoutBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
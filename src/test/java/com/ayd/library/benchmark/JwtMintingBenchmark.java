@@ -0,0 +1,93 @@
+package com.ayd.library.benchmark;
+
+import com.ayd.library.enums.Rol;
+import com.ayd.library.model.User;
+import com.ayd.library.repository.RevokedTokenRepository;
+import com.ayd.library.security.TokenRevocationList;
+import com.ayd.library.security.VerifiedClaimsCache;
+import com.ayd.library.service.JwtService;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token minting throughput and allocation per token, current JwtService against the previous
+ * implementation (claims HashMap, UUID.randomUUID() jti, key re-derived for every token).
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.ayd.library.benchmark.JwtMintingBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtMintingBenchmark {
+
+    private static final String SIGNING_KEY = "413F4428472B4B6250655368566D5970337336763979244226452948404D6351";
+
+    private JwtService jwtService;
+    private User user;
+
+    @Setup
+    public void setUp() {
+        var revocationList = new TokenRevocationList(Mockito.mock(RevokedTokenRepository.class), 5, 1000);
+        jwtService = new JwtService(new VerifiedClaimsCache(1000, new SimpleMeterRegistry()), revocationList);
+        ReflectionTestUtils.setField(jwtService, "tokenValidTime", 60);
+        ReflectionTestUtils.setField(jwtService, "jwtSigningKey", SIGNING_KEY);
+        ReflectionTestUtils.invokeMethod(jwtService, "init");
+
+        user = User.builder()
+                .userId(1L)
+                .username("student")
+                .role(Rol.STUDENT)
+                .status((short) 1)
+                .build();
+    }
+
+    @Benchmark
+    public String current() throws IOException {
+        return jwtService.generateToken(user);
+    }
+
+    @Benchmark
+    public String previous() {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("id", user.getUserId());
+        claims.put("user", user.getUsername());
+        claims.put("rol", user.getRole());
+        return Jwts.builder()
+                .setClaims(claims)
+                .setId("w" + UUID.randomUUID().getLeastSignificantBits())
+                .setSubject(user.getUsername())
+                .setAudience("CUNOC")
+                .setIssuedAt(new Date(System.currentTimeMillis()))
+                .setExpiration(Date.from(Instant.now().plus(60, ChronoUnit.MINUTES)))
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SIGNING_KEY)), SignatureAlgorithm.HS256)
+                .compact();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtMintingBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
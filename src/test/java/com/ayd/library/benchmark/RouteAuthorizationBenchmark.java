@@ -0,0 +1,92 @@
+package com.ayd.library.benchmark;
+
+import com.ayd.library.enums.Rol;
+import com.ayd.library.model.UserInfoDetails;
+import com.ayd.library.security.RouteAuthorizationManager;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authorization.method.AuthorizationManagerBeforeMethodInterceptor;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request authorization overhead: the route table checked once in the filter chain against a
+ * handler behind a @PreAuthorize method-security proxy evaluating the previous SpEL expression. The
+ * handler itself returns a constant, so the numbers are the authorization cost alone.
+ * Run main() with the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RouteAuthorizationBenchmark {
+
+    private RouteAuthorizationManager routeAuthorization;
+    private Authentication authentication;
+    private MockHttpServletRequest request;
+    private SharedCatalog controller;
+    private SharedCatalog proxiedController;
+
+    @Setup
+    public void setUp() {
+        var details = new UserInfoDetails(1L, "student", Rol.STUDENT);
+        authentication = new UsernamePasswordAuthenticationToken(details, null, details.getAuthorities());
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+
+        routeAuthorization = new RouteAuthorizationManager();
+        request = new MockHttpServletRequest("GET", "/books/all");
+
+        controller = new SharedCatalog();
+        var factory = new ProxyFactory(controller);
+        factory.setProxyTargetClass(true);
+        factory.addAdvice(AuthorizationManagerBeforeMethodInterceptor.preAuthorize());
+        proxiedController = (SharedCatalog) factory.getProxy();
+    }
+
+    @TearDown
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Benchmark
+    public Object routeTable() {
+        if (!routeAuthorization.check(() -> authentication, new RequestAuthorizationContext(request)).isGranted())
+            throw new IllegalStateException("denied");
+        return controller.getAllBooks();
+    }
+
+    @Benchmark
+    public Object preAuthorizeProxy() {
+        return proxiedController.getAllBooks();
+    }
+
+    public static class SharedCatalog {
+
+        private final List<Object> books = List.of();
+
+        @PreAuthorize("hasAuthority('LIBRARIAN') or hasAuthority('STUDENT')")
+        public Object getAllBooks() {
+            return books;
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(RouteAuthorizationBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
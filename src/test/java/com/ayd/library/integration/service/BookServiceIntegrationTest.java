@@ -1,11 +1,20 @@
 package com.ayd.library.integration.service;
 
+import com.ayd.library.dto.BookImportResultDto;
+import com.ayd.library.dto.BookPageDto;
 import com.ayd.library.dto.BookRequestDto;
+import com.ayd.library.dto.BookSummaryDto;
 import com.ayd.library.exception.DuplicatedEntityException;
+import com.ayd.library.exception.InvalidRequestException;
 import com.ayd.library.exception.NotFoundException;
 import com.ayd.library.model.Book;
 import com.ayd.library.repository.BookRepository;
+import com.ayd.library.service.BookImportService;
 import com.ayd.library.service.BookService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -18,6 +27,8 @@ import org.testcontainers.containers.MariaDBContainer;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.util.List;
 
@@ -25,7 +36,8 @@ import static org.junit.jupiter.api.Assertions.*;
 
 @Testcontainers
 @SpringBootTest
-@TestPropertySource(locations = "classpath:application-test.properties")
+@TestPropertySource(locations = "classpath:application-test.properties",
+        properties = "spring.jpa.properties.hibernate.generate_statistics=true")
 @Transactional
 public class BookServiceIntegrationTest {
 
@@ -38,9 +50,18 @@ public class BookServiceIntegrationTest {
     @Autowired
     private BookService bookService;
 
+    @Autowired
+    private BookImportService bookImportService;
+
     @Autowired
     private BookRepository bookRepository;
 
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
     private BookRequestDto bookRequestDto;
 
     @DynamicPropertySource
@@ -157,6 +178,75 @@ public class BookServiceIntegrationTest {
         assertEquals(1, books.size());
     }
 
+    @Test
+    public void testGetCatalogPage() throws DuplicatedEntityException, InvalidRequestException {
+        // Arrange
+        for (String code : List.of("B003", "B001", "B004", "B002")) {
+            bookRequestDto.setCode(code);
+            bookRequestDto.setTitle(code.equals("B004") ? "Alfa" : "Beta");
+            bookService.createBook(bookRequestDto);
+        }
+
+        // Act
+        BookPageDto first = bookService.getCatalogPage(null, "title", null, 2, null);
+        BookPageDto second = bookService.getCatalogPage(first.next(), null, null, 2, null);
+
+        // Assert
+        assertEquals(List.of("B004", "B001"), first.items().stream().map(BookSummaryDto::code).toList());
+        assertEquals(List.of("B002", "B003"), second.items().stream().map(BookSummaryDto::code).toList());
+        assertNotNull(first.next());
+    }
+
+    @Test
+    public void testGetCatalogPage_SingleStatement() throws DuplicatedEntityException, InvalidRequestException {
+        // Arrange
+        for (int i = 0; i < 30; i++) {
+            bookRequestDto.setCode("B%03d".formatted(i));
+            bookService.createBook(bookRequestDto);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // Act
+        BookPageDto page = bookService.getCatalogPage(null, null, null, 25, "title,publisher");
+
+        // Assert
+        assertEquals(25, page.items().size());
+        assertEquals("Test Book", page.items().get(0).title());
+        assertNull(page.items().get(0).author());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(0, statistics.getCollectionLoadCount());
+    }
+
+    @Test
+    public void testImportBooksCsv() throws Exception {
+        // Arrange
+        bookService.createBook(bookRequestDto);
+        String csv = """
+                code,title,author,publicationDate,publisher,availableCopies
+                B100,"Cien anos, de soledad",Garcia Marquez,1967-05-30,Sudamericana,3
+                b001,Repetido,Autor,,,1
+                B101,Rayuela,Cortazar,,,2
+                """;
+
+        // Act
+        BookImportResultDto result = bookImportService.importBooks(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), "text/csv");
+
+        // Assert
+        assertEquals(3, result.rows());
+        assertEquals(2, result.imported());
+        assertEquals(1, result.failed());
+        assertEquals(3L, result.errors().get(0).line());
+        Book imported = bookRepository.findById("B100").orElseThrow();
+        assertEquals("Cien anos, de soledad", imported.getTitle());
+        assertEquals(3, imported.getAvailableCopies());
+        assertTrue(imported.getStatus());
+    }
+
     @Test
     public void testSoftDeleteBook() throws NotFoundException, DuplicatedEntityException {
         // Arrange
@@ -0,0 +1,169 @@
+package com.ayd.library.integration.service;
+
+import com.ayd.library.dto.LoanRequestDto;
+import com.ayd.library.exception.EnoughException;
+import com.ayd.library.model.Book;
+import com.ayd.library.model.Career;
+import com.ayd.library.model.Loan;
+import com.ayd.library.model.Student;
+import com.ayd.library.repository.BookRepository;
+import com.ayd.library.repository.CareerRepository;
+import com.ayd.library.repository.LoanRepository;
+import com.ayd.library.repository.StudentRepository;
+import com.ayd.library.service.InventoryService;
+import com.ayd.library.service.LoanService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+import org.testcontainers.containers.MariaDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Not transactional on purpose: every checkout must run in its own transaction to race for the copies.
+ */
+@Testcontainers
+@SpringBootTest
+@TestPropertySource(locations = "classpath:application-test.properties",
+        properties = "loans.maxActivePerStudent=100")
+public class LoanInventoryConcurrencyIntegrationTest {
+
+    private static final int COPIES = 5;
+    private static final int CHECKOUTS = 40;
+
+    @Container
+    public static MariaDBContainer<?> mariaDBContainer = new MariaDBContainer<>("mariadb:10.5.8")
+            .withDatabaseName("testdb")
+            .withUsername("test")
+            .withPassword("test");
+
+    @Autowired
+    private LoanService loanService;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private LoanRepository loanRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private CareerRepository careerRepository;
+
+    @DynamicPropertySource
+    static void registerPgProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", mariaDBContainer::getJdbcUrl);
+        registry.add("spring.datasource.username", mariaDBContainer::getUsername);
+        registry.add("spring.datasource.password", mariaDBContainer::getPassword);
+    }
+
+    @BeforeEach
+    public void setUp() {
+        Career career = careerRepository.save(Career.builder().code("HOT").name("Hot titles").status(true).build());
+        Student student = new Student();
+        student.setCarnet("HOT001");
+        student.setCareerCode(career);
+        student.setName("Stress Test");
+        student.setBirthDate(LocalDate.of(2000, 1, 1));
+        student.setStatus(true);
+        studentRepository.save(student);
+
+        bookRepository.save(Book.builder()
+                .code("HOT-B1")
+                .title("Calculo")
+                .author("Stewart")
+                .availableCopies(COPIES)
+                .status(true)
+                .build());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        loanRepository.deleteAll(loanRepository.findAll().stream()
+                .filter(loan -> "HOT-B1".equals(loan.getBookCode().getCode()))
+                .toList());
+        bookRepository.deleteById("HOT-B1");
+        inventoryService.evict("HOT-B1");
+        studentRepository.deleteById("HOT001");
+        careerRepository.deleteById("HOT");
+    }
+
+    @Test
+    public void testConcurrentCheckoutsNeverOversell() throws Exception {
+        // Arrange
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger created = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < CHECKOUTS; i++) {
+            long id = 900_000L + i;
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    loanService.createLoan(new LoanRequestDto("HOT001", "HOT-B1", LocalDate.now(),
+                            LocalDate.now().plusDays(7), null, BigDecimal.ZERO, id));
+                    created.incrementAndGet();
+                } catch (EnoughException e) {
+                    rejected.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+
+        // Act
+        start.countDown();
+        for (Future<?> future : futures)
+            future.get(60, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        // Assert
+        assertEquals(COPIES, created.get());
+        assertEquals(CHECKOUTS - COPIES, rejected.get());
+        assertEquals(0, inventoryService.available("HOT-B1"));
+        inventoryService.flush();
+        assertEquals(0, bookRepository.findById("HOT-B1").orElseThrow().getAvailableCopies());
+    }
+
+    @Test
+    public void testReturnsGiveCopiesBackOnce() throws Exception {
+        // Arrange
+        Loan loan = loanService.createLoan(new LoanRequestDto("HOT001", "HOT-B1", LocalDate.now(),
+                LocalDate.now().plusDays(7), null, BigDecimal.ZERO, 900_100L));
+        inventoryService.flush();
+        assertEquals(COPIES - 1, bookRepository.findById("HOT-B1").orElseThrow().getAvailableCopies());
+
+        // Act
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<Loan>> futures = new ArrayList<>();
+        for (int i = 0; i < 4; i++)
+            futures.add(executor.submit(() -> loanService.closeLoan(loan.getId())));
+        for (Future<Loan> future : futures)
+            future.get(60, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        // Assert
+        assertEquals(COPIES, inventoryService.available("HOT-B1"));
+        inventoryService.flush();
+        assertEquals(COPIES, bookRepository.findById("HOT-B1").orElseThrow().getAvailableCopies());
+    }
+}
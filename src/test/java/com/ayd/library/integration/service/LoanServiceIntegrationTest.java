@@ -1,5 +1,8 @@
 package com.ayd.library.integration.service;
 
+import com.ayd.library.dto.LoanBatchRequestDto;
+import com.ayd.library.dto.LoanBatchResultDto;
+import com.ayd.library.dto.LoanPageDto;
 import com.ayd.library.dto.LoanRequestDto;
 import com.ayd.library.dto.LoanResponseDto;
 import com.ayd.library.enums.LoanStatus;
@@ -14,7 +17,9 @@ import com.ayd.library.repository.StudentRepository;
 import com.ayd.library.service.BookService;
 import com.ayd.library.service.CareerService;
 import com.ayd.library.service.LoanService;
+import com.ayd.library.service.OverdueFineJob;
 import com.ayd.library.service.StudentService;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -65,6 +70,12 @@ public class LoanServiceIntegrationTest {
     @Autowired
     private BookService bookService;
 
+    @Autowired
+    private OverdueFineJob overdueFineJob;
+
+    @Autowired
+    private EntityManager entityManager;
+
     private LoanRequestDto loanRequestDto;
     private Student student;
     private Book book;
@@ -113,7 +124,7 @@ public class LoanServiceIntegrationTest {
     }
 
     @Test
-    public void testCreateLoan() throws DuplicatedEntityException, NotFoundException, QuantityException, RequiredEntityException, EnoughException {
+    public void testCreateLoan() throws DuplicatedEntityException, NotFoundException, QuantityException, RequiredEntityException, EnoughException, LoanLimitException {
         // Act
         Loan createdLoan = loanService.createLoan(loanRequestDto);
 
@@ -126,7 +137,7 @@ public class LoanServiceIntegrationTest {
     }
 
 //    @Test
-//    public void testCreateLoan_DuplicatedEntityException() throws DuplicatedEntityException, NotFoundException, QuantityException, RequiredEntityException, EnoughException {
+//    public void testCreateLoan_DuplicatedEntityException() throws DuplicatedEntityException, NotFoundException, QuantityException, RequiredEntityException, EnoughException, LoanLimitException {
 //        // Arrange
 //        loanService.createLoan(loanRequestDto);
 //
@@ -166,7 +177,7 @@ public class LoanServiceIntegrationTest {
     }
 
 //    @Test
-//    public void testUpdateLoan() throws NotFoundException, DuplicatedEntityException, QuantityException, RequiredEntityException, EnoughException {
+//    public void testUpdateLoan() throws NotFoundException, DuplicatedEntityException, QuantityException, RequiredEntityException, EnoughException, LoanLimitException {
 //        // Arrange
 //        Loan createdLoan = loanService.createLoan(loanRequestDto);
 //        Loan updatedLoan = new Loan();
@@ -208,7 +219,7 @@ public class LoanServiceIntegrationTest {
     }
 
     @Test
-    public void testGetLoanById() throws NotFoundException, DuplicatedEntityException, QuantityException, RequiredEntityException, EnoughException {
+    public void testGetLoanById() throws NotFoundException, DuplicatedEntityException, QuantityException, RequiredEntityException, EnoughException, LoanLimitException {
         // Arrange
         Loan createdLoan = loanService.createLoan(loanRequestDto);
 
@@ -231,7 +242,7 @@ public class LoanServiceIntegrationTest {
     }
 
     @Test
-    public void testGetAllLoans() throws DuplicatedEntityException, NotFoundException, QuantityException, RequiredEntityException, EnoughException {
+    public void testGetAllLoans() throws DuplicatedEntityException, NotFoundException, QuantityException, RequiredEntityException, EnoughException, LoanLimitException {
         // Arrange
         loanService.createLoan(loanRequestDto);
 
@@ -245,7 +256,93 @@ public class LoanServiceIntegrationTest {
     }
 
     @Test
-    public void testCloseLoan() throws NotFoundException, DuplicatedEntityException, QuantityException, RequiredEntityException, EnoughException {
+    public void testGetLoanPage() throws InvalidRequestException {
+        // Arrange
+        LocalDate day = LocalDate.of(2024, 5, 1);
+        for (int i = 0; i < 5; i++)
+            loanRepository.save(Loan.builder()
+                    .loanDate(day.plusDays(i / 2))
+                    .returnDate(day.plusDays(7))
+                    .status(i == 4 ? "returned" : "active")
+                    .totalDue(BigDecimal.ZERO)
+                    .student(student)
+                    .bookCode(book)
+                    .build());
+
+        // Act
+        LoanPageDto first = loanService.getLoanPage(null, "active", day, day.plusDays(10), "ST001", "B001", 3);
+        LoanPageDto second = loanService.getLoanPage(first.next(), "active", day, day.plusDays(10), "ST001", "B001", 3);
+
+        // Assert
+        assertEquals(3, first.items().size());
+        assertEquals(day.plusDays(1), first.items().get(0).getLoanDate());
+        assertTrue(first.items().get(1).getId() < first.items().get(0).getId());
+        assertEquals(1, second.items().size());
+        assertEquals(day, second.items().get(0).getLoanDate());
+        assertNull(second.next());
+        assertTrue(loanService.getLoanPage(null, null, null, null, "OTHER", null, null).items().isEmpty());
+    }
+
+    @Test
+    public void testCreateLoans() throws ServiceException {
+        // Arrange
+        Book second = bookRepository.save(Book.builder()
+                .code("B002")
+                .title("Second Book")
+                .author("Test Author")
+                .availableCopies(1)
+                .status(true)
+                .build());
+
+        // Act
+        LoanBatchResultDto result = loanService.createLoans(new LoanBatchRequestDto("ST001",
+                List.of("B002", "B001"), LocalDate.now(), LocalDate.now().plusDays(7), null));
+        LoanBatchException thrown = assertThrows(LoanBatchException.class, () -> loanService.createLoans(
+                new LoanBatchRequestDto("ST001", List.of(second.getCode()), null, null, null)));
+
+        // Assert
+        assertTrue(result.created());
+        assertEquals(2, result.items().size());
+        assertEquals("B002", loanRepository.findById(result.items().get(0).loanId()).orElseThrow().getBookCode().getCode());
+        assertEquals("No hay copias disponibles", thrown.getResult().items().get(0).error());
+        assertEquals(2, loanRepository.count());
+    }
+
+    @Test
+    public void testOverdueFineJob() {
+        // Arrange
+        LocalDate today = LocalDate.of(2024, 5, 20);
+        Loan late = loanRepository.save(Loan.builder()
+                .loanDate(today.minusDays(20))
+                .returnDate(today.minusDays(3))
+                .status("active")
+                .totalDue(BigDecimal.ZERO)
+                .student(student)
+                .bookCode(book)
+                .build());
+        Loan returned = loanRepository.save(Loan.builder()
+                .loanDate(today.minusDays(20))
+                .returnDate(today.minusDays(3))
+                .status("returned")
+                .totalDue(BigDecimal.ZERO)
+                .student(student)
+                .bookCode(book)
+                .build());
+
+        // Act
+        int firstRun = overdueFineJob.run(today);
+        int secondRun = overdueFineJob.run(today);
+        entityManager.clear();
+
+        // Assert
+        assertEquals(1, firstRun);
+        assertEquals(0, secondRun);
+        assertEquals(0, new BigDecimal("3.00").compareTo(loanRepository.findById(late.getId()).orElseThrow().getFine()));
+        assertEquals(0, BigDecimal.ZERO.compareTo(loanRepository.findById(returned.getId()).orElseThrow().getFine()));
+    }
+
+    @Test
+    public void testCloseLoan() throws NotFoundException, DuplicatedEntityException, QuantityException, RequiredEntityException, EnoughException, LoanLimitException {
         // Arrange
         Loan createdLoan = loanService.createLoan(loanRequestDto);
 
@@ -268,7 +365,7 @@ public class LoanServiceIntegrationTest {
     }
 
     @Test
-    public void testFindLoansByStatus() throws DuplicatedEntityException, NotFoundException, QuantityException, RequiredEntityException, EnoughException {
+    public void testFindLoansByStatus() throws DuplicatedEntityException, NotFoundException, QuantityException, RequiredEntityException, EnoughException, LoanLimitException {
         // Arrange
         loanService.createLoan(loanRequestDto);
 
@@ -5,7 +5,9 @@ import com.ayd.library.exception.NotFoundException;
 import com.ayd.library.exception.ServiceException;
 import com.ayd.library.model.User;
 import com.ayd.library.repository.UserRepository;
+import com.ayd.library.service.PasswordRehashJob;
 import com.ayd.library.service.UserService;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -42,6 +44,12 @@ public class UserServiceIntegrationTest {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private PasswordRehashJob passwordRehashJob;
+
+    @Autowired
+    private EntityManager entityManager;
+
     @DynamicPropertySource
     static void registerPgProperties(DynamicPropertyRegistry registry) {
         registry.add("spring.datasource.url", mariaDBContainer::getJdbcUrl);
@@ -140,14 +148,17 @@ public class UserServiceIntegrationTest {
     }
 
     @Test
-    public void testEncodeExistingPasswords() {
+    public void testPasswordRehashJob() {
         // Act
-        userService.encodeExistingPasswords();
+        int hashed = passwordRehashJob.run();
+        entityManager.clear();
 
         // Assert
+        assertTrue(hashed >= 1);
         List<User> users = userRepository.findAll();
         for (User user : users) {
             assertTrue(user.getPassword().startsWith("$2a$"));
         }
+        assertEquals(0, passwordRehashJob.run());
     }
 }
@@ -1,26 +1,40 @@
 package com.ayd.library.unit.controller;
 
 import com.ayd.library.controller.BookController;
+import com.ayd.library.dto.BookImportErrorDto;
+import com.ayd.library.dto.BookImportResultDto;
+import com.ayd.library.dto.BookPageDto;
 import com.ayd.library.dto.BookRequestDto;
+import com.ayd.library.dto.BookSuggestionDto;
+import com.ayd.library.dto.BookSummaryDto;
 import com.ayd.library.exception.DuplicatedEntityException;
 import com.ayd.library.exception.NotFoundException;
 import com.ayd.library.model.Book;
+import com.ayd.library.service.BookExportService;
+import com.ayd.library.service.BookImportService;
 import com.ayd.library.service.BookService;
+import com.ayd.library.service.CatalogVersion;
 import org.json.JSONObject;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.io.OutputStream;
 import java.time.LocalDate;
 import java.util.Collections;
+import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -32,6 +46,15 @@ public class BookControllerTest {
     @Mock
     private BookService bookService;
 
+    @Mock
+    private BookImportService bookImportService;
+
+    @Mock
+    private BookExportService bookExportService;
+
+    @Spy
+    private CatalogVersion catalogVersion = new CatalogVersion();
+
     @InjectMocks
     private BookController bookController;
 
@@ -106,6 +129,95 @@ public class BookControllerTest {
                 .andExpect(jsonPath("$.availableCopies").value(5));
     }
 
+    @Test
+    @WithMockUser(authorities = "STUDENT")
+    public void testGetCatalogPage() throws Exception {
+        // Arrange
+        BookSummaryDto book = new BookSummaryDto("B001", "El Dragon", null, null, null, 5);
+        when(bookService.getCatalogPage("abc", "title", null, 20, "availableCopies"))
+                .thenReturn(new BookPageDto(List.of(book), "def"));
+
+        // Act & Assert
+        mockMvc.perform(get("/books")
+                        .param("cursor", "abc")
+                        .param("sort", "title")
+                        .param("size", "20")
+                        .param("fields", "availableCopies"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].code").value("B001"))
+                .andExpect(jsonPath("$.items[0].availableCopies").value(5))
+                .andExpect(jsonPath("$.items[0].author").doesNotExist())
+                .andExpect(jsonPath("$.next").value("def"));
+    }
+
+    @Test
+    @WithMockUser(authorities = "STUDENT")
+    public void testSearchBooks() throws Exception {
+        // Arrange
+        BookSummaryDto book = new BookSummaryDto("B001", "El Dragon", "The last dragon", null, null, 5);
+        when(bookService.searchBooks("dragon", null)).thenReturn(List.of(book));
+
+        // Act & Assert
+        mockMvc.perform(get("/books/search").param("q", "dragon"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].code").value("B001"))
+                .andExpect(jsonPath("$[0].title").value("El Dragon"));
+    }
+
+    @Test
+    @WithMockUser(authorities = "LIBRARIAN")
+    public void testSuggestBooks() throws Exception {
+        // Arrange
+        when(bookService.suggestBooks("el dra", 5)).thenReturn(List.of(new BookSuggestionDto("El Dragon", "title", 2)));
+
+        // Act & Assert
+        mockMvc.perform(get("/books/suggest").param("prefix", "el dra").param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].text").value("El Dragon"))
+                .andExpect(jsonPath("$[0].type").value("title"))
+                .andExpect(jsonPath("$[0].books").value(2));
+    }
+
+    @Test
+    @WithMockUser(authorities = "LIBRARIAN")
+    public void testImportBooks() throws Exception {
+        // Arrange
+        BookImportResultDto result = new BookImportResultDto(2, 1, 1, 5, 400,
+                List.of(new BookImportErrorDto(3, "B2", "Existe un libro con el codigo: B2")));
+        when(bookImportService.importBooks(any(), eq("text/csv"))).thenReturn(result);
+
+        // Act & Assert
+        mockMvc.perform(post("/books/import")
+                        .contentType("text/csv")
+                        .content("code,title,author,availableCopies\nB1,Rayuela,Cortazar,2\nB2,Ficciones,Borges,1\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(1))
+                .andExpect(jsonPath("$.errors[0].line").value(3));
+    }
+
+    @Test
+    @WithMockUser(authorities = "LIBRARIAN")
+    public void testExportBooks() throws Exception {
+        // Arrange
+        when(bookExportService.contentType("ndjson")).thenReturn("application/x-ndjson");
+        when(bookExportService.export(any(), eq("application/x-ndjson"), eq(true))).thenAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(0).write("{}\n".getBytes());
+            return 1L;
+        });
+
+        // Act
+        var result = mockMvc.perform(get("/books/export").param("format", "ndjson").header("Accept-Encoding", "gzip, br"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Assert
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"books.ndjson\""))
+                .andExpect(content().string("{}\n"));
+    }
+
     @Test
     @WithMockUser(authorities = "LIBRARIAN")
     public void testGetAllBooks() throws Exception {
@@ -131,7 +243,34 @@ public class BookControllerTest {
                 .andExpect(jsonPath("$[0].author").value("The last dragon"))
 //                .andExpect(jsonPath("$.publicationDate").value("2024-5-19"))
                 .andExpect(jsonPath("$[0].publisher").value("The last dragon"))
-                .andExpect(jsonPath("$[0].availableCopies").value(5));
+                .andExpect(jsonPath("$[0].availableCopies").value(5))
+                .andExpect(header().string("ETag", catalogVersion.etag()));
+    }
+
+    @Test
+    @WithMockUser(authorities = "LIBRARIAN")
+    public void testGetAllBooksNotModified() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/books/all")
+                        .header("If-None-Match", catalogVersion.etag()))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", catalogVersion.etag()));
+        verify(bookService, never()).getAllBooks();
+    }
+
+    @Test
+    @WithMockUser(authorities = "LIBRARIAN")
+    public void testGetAllBooksAfterCatalogChange() throws Exception {
+        // Arrange
+        String stale = catalogVersion.etag();
+        catalogVersion.bump();
+        when(bookService.getAllBooks()).thenReturn(Collections.emptyList());
+
+        // Act & Assert
+        mockMvc.perform(get("/books/all")
+                        .header("If-None-Match", stale))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", catalogVersion.etag()));
     }
 
     @Test
@@ -5,11 +5,13 @@ import com.ayd.library.exception.NotFoundException;
 import com.ayd.library.exception.ServiceException;
 import com.ayd.library.model.Career;
 import com.ayd.library.service.CareerService;
+import com.ayd.library.service.CatalogVersion;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
@@ -18,6 +20,8 @@ import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import java.util.Collections;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -29,6 +33,9 @@ public class CareerControllerTest {
     @Mock
     private CareerService careerService;
 
+    @Spy
+    private CatalogVersion catalogVersion = new CatalogVersion();
+
     @InjectMocks
     private CareerController careerController;
 
@@ -82,7 +89,18 @@ public class CareerControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].code").value(career.getCode()))
                 .andExpect(jsonPath("$[0].name").value(career.getName()))
-                .andExpect(jsonPath("$[0].status").value(career.getStatus()));
+                .andExpect(jsonPath("$[0].status").value(career.getStatus()))
+                .andExpect(header().string("ETag", catalogVersion.etag()));
+    }
+
+    @Test
+    @WithMockUser(authorities = {"LIBRARIAN", "STUDENT"})
+    public void testGetAllActiveCareersNotModified() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/career/all")
+                        .header("If-None-Match", catalogVersion.etag()))
+                .andExpect(status().isNotModified());
+        verify(careerService, never()).getAllActiveCareers();
     }
 
     @Test
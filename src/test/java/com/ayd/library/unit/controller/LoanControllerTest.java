@@ -1,14 +1,22 @@
 package com.ayd.library.unit.controller;
 
 import com.ayd.library.controller.LoanController;
+import com.ayd.library.dto.LoanBatchItemDto;
+import com.ayd.library.dto.LoanBatchRequestDto;
+import com.ayd.library.dto.LoanBatchResultDto;
+import com.ayd.library.dto.LoanPageDto;
 import com.ayd.library.dto.LoanRequestDto;
 import com.ayd.library.dto.LoanResponseDto;
+import com.ayd.library.dto.LoanReturnItemDto;
+import com.ayd.library.dto.LoanReturnRequestDto;
+import com.ayd.library.dto.LoanReturnResultDto;
 import com.ayd.library.enums.LoanStatus;
 import com.ayd.library.exception.ServiceException;
 import com.ayd.library.exception.NotFoundException;
 import com.ayd.library.model.Book;
 import com.ayd.library.model.Loan;
 import com.ayd.library.model.Student;
+import com.ayd.library.service.LoanReturnService;
 import com.ayd.library.service.LoanService;
 import org.hibernate.Hibernate;
 import org.junit.jupiter.api.BeforeEach;
@@ -22,11 +30,15 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.io.InputStream;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.Collections;
+import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -38,6 +50,9 @@ public class LoanControllerTest {
     @Mock
     private LoanService loanService;
 
+    @Mock
+    private LoanReturnService loanReturnService;
+
     @InjectMocks
     private LoanController loanController;
 
@@ -208,6 +223,84 @@ public class LoanControllerTest {
                 .andExpect(jsonPath("$[0].status").value(loanResponseDto.getStatus()));
     }
 
+    @Test
+    @WithMockUser(authorities = "LIBRARIAN")
+    public void testCreateLoans() throws Exception {
+        // Arrange
+        when(loanService.createLoans(any(LoanBatchRequestDto.class))).thenReturn(new LoanBatchResultDto("S001", true,
+                List.of(new LoanBatchItemDto("B001", 11L, null), new LoanBatchItemDto("B002", 12L, null))));
+
+        // Act & Assert
+        mockMvc.perform(post("/loans/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"carnet": "S001", "bookCodes": ["B001", "B002"], "returnDate": "2024-05-26"}
+                                """))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(true))
+                .andExpect(jsonPath("$.items[1].bookCode").value("B002"))
+                .andExpect(jsonPath("$.items[1].loanId").value(12));
+    }
+
+    @Test
+    @WithMockUser(authorities = "LIBRARIAN")
+    public void testReturnLoans() throws Exception {
+        // Arrange
+        when(loanReturnService.returnLoans(any(LoanReturnRequestDto.class))).thenReturn(new LoanReturnResultDto(2, 1, 1, 5,
+                List.of(new LoanReturnItemDto(1L, "B001", null), new LoanReturnItemDto(null, "B002", "No hay prestamos activos del libro"))));
+
+        // Act & Assert
+        mockMvc.perform(post("/loans/return")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"loanIds": [1], "bookCodes": ["B002"]}
+                                """))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.returned").value(1))
+                .andExpect(jsonPath("$.failed").value(1))
+                .andExpect(jsonPath("$.results[0].loanId").value(1))
+                .andExpect(jsonPath("$.results[1].error").value("No hay prestamos activos del libro"));
+    }
+
+    @Test
+    @WithMockUser(authorities = "LIBRARIAN")
+    public void testReturnLoansNdjson() throws Exception {
+        // Arrange
+        when(loanReturnService.returnLoans(any(InputStream.class))).thenReturn(new LoanReturnResultDto(1, 1, 0, 3,
+                List.of(new LoanReturnItemDto(1L, "B001", null))));
+
+        // Act & Assert
+        mockMvc.perform(post("/loans/return")
+                        .contentType("application/x-ndjson")
+                        .content("{\"loanId\": 1}\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.returned").value(1));
+    }
+
+    @Test
+    @WithMockUser(authorities = "LIBRARIAN")
+    public void testGetLoanPage() throws Exception {
+        // Arrange
+        LoanResponseDto loanResponseDto = new LoanResponseDto(1L, "S001", "El Dragon",
+                LocalDate.of(2024, 5, 19), LocalDate.of(2024, 5, 22), "active", BigDecimal.TEN);
+        when(loanService.getLoanPage(isNull(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(new LoanPageDto(List.of(loanResponseDto), "next-token"));
+
+        // Act & Assert
+        mockMvc.perform(get("/loans/page")
+                        .param("status", "active")
+                        .param("from", "2024-05-01")
+                        .param("to", "2024-05-31")
+                        .param("carnet", "S001")
+                        .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value(1))
+                .andExpect(jsonPath("$.items[0].carnet").value("S001"))
+                .andExpect(jsonPath("$.next").value("next-token"));
+        verify(loanService).getLoanPage(null, "active", LocalDate.of(2024, 5, 1),
+                LocalDate.of(2024, 5, 31), "S001", null, 1);
+    }
+
 
     @Test
     @WithMockUser(authorities = "LIBRARIAN")
@@ -0,0 +1,139 @@
+package com.ayd.library.unit.search;
+
+import com.ayd.library.exception.ServiceUnavailableException;
+import com.ayd.library.repository.BookRepository;
+import com.ayd.library.search.BookSearchIndex;
+import com.ayd.library.search.TextAnalyzer;
+import com.ayd.library.service.BookChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class BookSearchIndexTest {
+
+    @Mock
+    private BookRepository bookRepository;
+
+    private BookSearchIndex index;
+
+    @BeforeEach
+    public void setUp() {
+        index = new BookSearchIndex(bookRepository, 100);
+    }
+
+    @Test
+    public void testTermsAreFoldedAndFiltered() {
+        // Act
+        List<String> terms = TextAnalyzer.terms("El Niño y la CANCIÓN de María-José");
+
+        // Assert
+        assertEquals(List.of("nino", "cancion", "maria", "jose"), terms);
+    }
+
+    @Test
+    public void testSearchBeforeBuildIsUnavailable() {
+        // Act & Assert
+        assertThrows(ServiceUnavailableException.class, () -> index.search("dragon", 10));
+    }
+
+    @Test
+    public void testSearchRanksTitleMatchesFirst() throws ServiceUnavailableException {
+        // Arrange
+        build();
+        index.put("B1", "Historia de Guatemala", "Dragón Pérez", "Piedra Santa");
+        index.put("B2", "El último dragón", "Ana Martínez", "Alfaguara");
+        index.put("B3", "Cocina guatemalteca", "Luis Pérez", "Piedra Santa");
+
+        // Act
+        List<String> result = index.search("dragon", 10);
+
+        // Assert
+        assertEquals(List.of("B2", "B1"), result);
+        assertEquals(List.of("B1", "B3"), index.search("PEREZ", 10).stream().sorted().toList());
+        assertEquals(List.of(), index.search("de la", 10));
+    }
+
+    @Test
+    public void testSearchHonoursLimit() throws ServiceUnavailableException {
+        // Arrange
+        build();
+        for (int i = 0; i < 20; i++)
+            index.put("B" + i, "Cuentos " + i, "Autor", null);
+
+        // Act & Assert
+        assertEquals(5, index.search("cuentos", 5).size());
+    }
+
+    @Test
+    public void testUpdatesAndDeletesAreApplied() throws ServiceUnavailableException {
+        // Arrange
+        build();
+        index.put("B1", "Cien años de soledad", "García Márquez", null);
+
+        // Act
+        index.onBookChanged(new BookChangedEvent("B1", "El amor en los tiempos del cólera", "García Márquez", null, true));
+
+        // Assert
+        assertEquals(List.of(), index.search("soledad", 10));
+        assertEquals(List.of("B1"), index.search("colera", 10));
+
+        // Act
+        index.onBookChanged(new BookChangedEvent("B1", "El amor en los tiempos del cólera", "García Márquez", null, false));
+
+        // Assert
+        assertEquals(List.of(), index.search("colera", 10));
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    public void testDeadDocsDoNotCountAsDocumentFrequency() throws ServiceUnavailableException {
+        // Arrange
+        build();
+        for (int i = 0; i < 3; i++)
+            index.put("B3", "Dragon " + i, null, null);
+        index.put("B1", "Dragon", null, null);
+        index.put("B2", "Rojo", null, null);
+        index.put("B3", "Azul", null, null);
+        index.put("B4", "Rojo verde", null, null);
+
+        // Act
+        List<String> result = index.search("dragon rojo", 10);
+
+        // Assert
+        assertEquals("B1", result.get(0));
+    }
+
+    @Test
+    public void testManyEditsAreCompactedAndStillFound() throws ServiceUnavailableException {
+        // Arrange
+        build();
+        for (int i = 0; i < 10; i++)
+            index.put("B" + i, "Cuentos " + i, "Autor", null);
+
+        // Act
+        for (int edit = 0; edit < 5000; edit++)
+            index.put("B" + (edit % 10), "Cuentos edicion" + edit, "Autor", null);
+        index.put("B0", "Poemas", "Autor", null);
+
+        // Assert
+        assertEquals(10, index.size());
+        assertEquals(9, index.search("cuentos", 20).size());
+        assertEquals(List.of("B0"), index.search("poemas", 10));
+        assertEquals(List.of("B9"), index.search("edicion4999", 10));
+        assertEquals(List.of(), index.search("edicion4989", 10));
+    }
+
+    private void build() {
+        when(bookRepository.findActivePage(any(), anyBoolean(), any(), any(), eq(100), any())).thenReturn(List.of());
+        index.rebuild();
+    }
+}
@@ -0,0 +1,77 @@
+package com.ayd.library.unit.search;
+
+import com.ayd.library.dto.BookSuggestionDto;
+import com.ayd.library.search.SuggestionIndex;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SuggestionIndexTest {
+
+    @Test
+    public void testSuggestMostCommonCompletionsFirst() {
+        // Arrange
+        SuggestionIndex index = SuggestionIndex.builder()
+                .add("Cien años de soledad", SuggestionIndex.TITLE)
+                .add("Ciencia ficción", SuggestionIndex.TITLE)
+                .add("Ciencia Ficción", SuggestionIndex.TITLE)
+                .add("Cálculo", SuggestionIndex.TITLE)
+                .add("Ciro Alegría", SuggestionIndex.AUTHOR)
+                .build();
+
+        // Act
+        List<BookSuggestionDto> result = index.suggest("CIE", 5);
+
+        // Assert
+        assertEquals(2, result.size());
+        assertEquals(new BookSuggestionDto("Ciencia ficción", "title", 2), result.get(0));
+        assertEquals("Cien años de soledad", result.get(1).text());
+        assertEquals(List.of("Ciro Alegría"), index.suggest("ciro", 5).stream().map(BookSuggestionDto::text).toList());
+    }
+
+    @Test
+    public void testSuggestFoldsAccentsAndSeparators() {
+        // Arrange
+        SuggestionIndex index = SuggestionIndex.builder()
+                .add("Cálculo Diferencial", SuggestionIndex.TITLE)
+                .add("Calculo  integral", SuggestionIndex.TITLE)
+                .build();
+
+        // Act & Assert
+        assertEquals(2, index.suggest("calc", 10).size());
+        assertEquals("Cálculo Diferencial", index.suggest("cálculo-dif", 10).get(0).text());
+        assertEquals(1, index.suggest("calculo i", 10).size());
+    }
+
+    @Test
+    public void testSuggestRespectsLimitAndWeights() {
+        // Arrange
+        var builder = SuggestionIndex.builder();
+        for (int i = 0; i < 100; i++)
+            for (int copies = 0; copies <= i % 7; copies++)
+                builder.add("Libro " + i, SuggestionIndex.TITLE);
+        SuggestionIndex index = builder.build();
+
+        // Act
+        List<BookSuggestionDto> result = index.suggest("libro", 3);
+
+        // Assert
+        assertEquals(3, result.size());
+        assertTrue(result.stream().allMatch(s -> s.books() == 7));
+        assertEquals("Libro 13", result.get(0).text());
+        assertTrue(index.memoryBytes() > 0);
+    }
+
+    @Test
+    public void testNoMatches() {
+        // Arrange
+        SuggestionIndex index = SuggestionIndex.builder().add("Poesía", SuggestionIndex.TITLE).build();
+
+        // Act & Assert
+        assertTrue(index.suggest("zz", 5).isEmpty());
+        assertTrue(index.suggest("  ", 5).isEmpty());
+        assertTrue(SuggestionIndex.empty().suggest("a", 5).isEmpty());
+    }
+}
@@ -0,0 +1,65 @@
+package com.ayd.library.unit.security;
+
+import com.ayd.library.exception.ServiceUnavailableException;
+import com.ayd.library.security.PasswordVerificationExecutor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PasswordVerificationExecutorTest {
+
+    @Test
+    public void testMatches() throws ServiceUnavailableException {
+        // Arrange
+        var encoder = new BCryptPasswordEncoder(4);
+        var executor = new PasswordVerificationExecutor(encoder, 1, 1, 5000, 2, new SimpleMeterRegistry());
+        String hash = encoder.encode("123");
+
+        // Act & Assert
+        assertTrue(executor.matches("123", hash));
+        assertFalse(executor.matches("321", hash));
+    }
+
+    @Test
+    public void testRejectsWhenQueueIsFull() throws InterruptedException {
+        // Arrange
+        var release = new CountDownLatch(1);
+        var started = new CountDownLatch(1);
+        PasswordEncoder blockingEncoder = new BCryptPasswordEncoder(4) {
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return true;
+            }
+        };
+        var registry = new SimpleMeterRegistry();
+        var executor = new PasswordVerificationExecutor(blockingEncoder, 1, 1, 5000, 7, registry);
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        callers.submit(() -> executor.matches("a", "b"));
+        started.await(5, TimeUnit.SECONDS);
+        callers.submit(() -> executor.matches("a", "b"));
+        while (registry.get("signin.password.queue.depth").gauge().value() < 1)
+            Thread.onSpinWait();
+
+        // Act & Assert
+        ServiceUnavailableException thrown = assertThrows(ServiceUnavailableException.class, () -> executor.matches("a", "b"));
+        assertEquals(7, thrown.getRetryAfterSeconds());
+        assertEquals(1.0, registry.get("signin.password.rejected").counter().count());
+
+        release.countDown();
+        callers.shutdown();
+    }
+}
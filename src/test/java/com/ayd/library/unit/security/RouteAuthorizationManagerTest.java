@@ -0,0 +1,96 @@
+package com.ayd.library.unit.security;
+
+import com.ayd.library.enums.Rol;
+import com.ayd.library.model.UserInfoDetails;
+import com.ayd.library.security.RouteAuthorizationManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RouteAuthorizationManagerTest {
+
+    private final RouteAuthorizationManager manager = new RouteAuthorizationManager();
+
+    @Test
+    public void testLibrarianRoutes() {
+        // Arrange
+        Authentication librarian = authenticated(Rol.LIBRARIAN);
+        Authentication student = authenticated(Rol.STUDENT);
+
+        // Act & Assert
+        assertTrue(isGranted(librarian, "POST", "/books"));
+        assertTrue(isGranted(librarian, "DELETE", "/books/B001"));
+        assertFalse(isGranted(student, "POST", "/books"));
+        assertFalse(isGranted(student, "GET", "/books/B001"));
+        assertFalse(isGranted(student, "PUT", "/career/update/C01"));
+        assertFalse(isGranted(student, "GET", "/student"));
+    }
+
+    @Test
+    public void testSharedRoutes() {
+        // Arrange
+        Authentication student = authenticated(Rol.STUDENT);
+
+        // Act & Assert
+        assertTrue(isGranted(student, "GET", "/books/all"));
+        assertTrue(isGranted(student, "GET", "/books"));
+        assertTrue(isGranted(student, "GET", "/books/search"));
+        assertTrue(isGranted(student, "GET", "/career/all"));
+        assertTrue(isGranted(student, "PUT", "/student/201830000"));
+        assertTrue(isGranted(student, "POST", "/loans"));
+        assertTrue(isGranted(student, "PATCH", "/reservations/4/status"));
+        assertFalse(isGranted(student, "DELETE", "/student/201830000"));
+    }
+
+    @Test
+    public void testAdminHasNoCatalogAccess() {
+        // Arrange
+        Authentication admin = authenticated(Rol.ADMIN);
+
+        // Act & Assert
+        assertFalse(isGranted(admin, "GET", "/loans"));
+        assertFalse(isGranted(admin, "GET", "/books/all"));
+    }
+
+    @Test
+    public void testAuthoritiesWithoutUserInfoDetails() {
+        // Arrange
+        Authentication auth = new UsernamePasswordAuthenticationToken("user", null, AuthorityUtils.createAuthorityList("STUDENT"));
+
+        // Act & Assert
+        assertTrue(isGranted(auth, "GET", "/loans/1"));
+        assertFalse(isGranted(auth, "DELETE", "/books/B001"));
+    }
+
+    @Test
+    public void testAnonymousIsDenied() {
+        // Arrange
+        Authentication anonymous = new AnonymousAuthenticationToken("key", "anonymous", AuthorityUtils.createAuthorityList("ROLE_ANONYMOUS"));
+
+        // Act & Assert
+        assertFalse(isGranted(anonymous, "GET", "/books/all"));
+        assertFalse(isGranted(null, "GET", "/unmapped"));
+    }
+
+    @Test
+    public void testUnmappedRouteOnlyRequiresAuthentication() {
+        // Act & Assert
+        assertTrue(isGranted(authenticated(Rol.ADMIN), "GET", "/unmapped"));
+    }
+
+    private boolean isGranted(Authentication authentication, String method, String uri) {
+        var request = new MockHttpServletRequest(method, uri);
+        return manager.check(() -> authentication, new RequestAuthorizationContext(request)).isGranted();
+    }
+
+    private static Authentication authenticated(Rol rol) {
+        var details = new UserInfoDetails(1L, "user", rol);
+        return new UsernamePasswordAuthenticationToken(details, null, details.getAuthorities());
+    }
+}
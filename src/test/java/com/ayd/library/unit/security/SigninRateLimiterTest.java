@@ -0,0 +1,80 @@
+package com.ayd.library.unit.security;
+
+import com.ayd.library.exception.TooManyRequestsException;
+import com.ayd.library.security.SigninRateLimiter;
+import com.ayd.library.security.TokenBucketLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SigninRateLimiterTest {
+
+    @Test
+    public void testTokenBucketLimitsBursts() {
+        // Arrange
+        var limiter = new TokenBucketLimiter(3, 1, 4);
+
+        // Act & Assert
+        assertTrue(limiter.tryAcquire("admin"));
+        assertTrue(limiter.tryAcquire("admin"));
+        assertTrue(limiter.tryAcquire("admin"));
+        assertFalse(limiter.tryAcquire("admin"));
+        assertTrue(limiter.tryAcquire("student"));
+        assertEquals(60, limiter.secondsUntilNextToken());
+    }
+
+    @Test
+    public void testEvictionNeverHandsOutAFreshBucket() throws Exception {
+        // Arrange
+        var limiter = new TokenBucketLimiter(3, 1, 4);
+        var stop = new AtomicBoolean();
+        Thread evictor = new Thread(() -> {
+            while (!stop.get())
+                limiter.evictIdle();
+        });
+        evictor.start();
+
+        // Act & Assert
+        try {
+            for (int key = 0; key < 2000; key++) {
+                int granted = 0;
+                for (int attempt = 0; attempt < 4; attempt++)
+                    if (limiter.tryAcquire("user" + key))
+                        granted++;
+                assertEquals(3, granted);
+            }
+        } finally {
+            stop.set(true);
+            evictor.join();
+        }
+    }
+
+    @Test
+    public void testRejectsByUsername() throws TooManyRequestsException {
+        // Arrange
+        var registry = new SimpleMeterRegistry();
+        var limiter = new SigninRateLimiter(2, 1, 100, 100, 8, registry);
+        limiter.check("admin", "10.0.0.1");
+        limiter.check("ADMIN", "10.0.0.2");
+
+        // Act & Assert
+        assertThrows(TooManyRequestsException.class, () -> limiter.check("admin", "10.0.0.3"));
+        assertEquals(1.0, registry.get("signin.ratelimit.rejected").tag("key", "username").counter().count());
+    }
+
+    @Test
+    public void testRejectsByIp() throws TooManyRequestsException {
+        // Arrange
+        var registry = new SimpleMeterRegistry();
+        var limiter = new SigninRateLimiter(100, 100, 1, 1, 8, registry);
+        limiter.check("admin", "10.0.0.1");
+
+        // Act & Assert
+        TooManyRequestsException thrown = assertThrows(TooManyRequestsException.class, () -> limiter.check("student", "10.0.0.1"));
+        assertEquals(60, thrown.getRetryAfterSeconds());
+        assertEquals(1.0, registry.get("signin.ratelimit.rejected").tag("key", "ip").counter().count());
+    }
+}
@@ -0,0 +1,87 @@
+package com.ayd.library.unit.security;
+
+import com.ayd.library.model.RevokedToken;
+import com.ayd.library.repository.RevokedTokenRepository;
+import com.ayd.library.security.TokenRevocationList;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TokenRevocationListTest {
+
+    @Mock
+    private RevokedTokenRepository repository;
+
+    private TokenRevocationList revocationList;
+
+    @BeforeEach
+    public void setUp() {
+        revocationList = new TokenRevocationList(repository, 1, 1000);
+    }
+
+    @Test
+    public void testRevoke() {
+        // Arrange
+        Date expiration = new Date(System.currentTimeMillis() + 600_000);
+
+        // Act
+        revocationList.revoke("w123", expiration);
+
+        // Assert
+        assertTrue(revocationList.isRevoked("w123", expiration));
+        assertFalse(revocationList.isRevoked("w456", expiration));
+        verify(repository, times(1)).save(any(RevokedToken.class));
+    }
+
+    @Test
+    public void testExpiredTokenIsNotStored() {
+        // Act
+        revocationList.revoke("w123", new Date(System.currentTimeMillis() - 1000));
+
+        // Assert
+        assertEquals(0, revocationList.size());
+        verify(repository, times(0)).save(any(RevokedToken.class));
+    }
+
+    @Test
+    public void testLoadFromRepository() {
+        // Arrange
+        long expiresAt = System.currentTimeMillis() + 600_000;
+        when(repository.findAllByExpiresAtGreaterThan(anyLong())).thenReturn(List.of(new RevokedToken("w789", expiresAt)));
+
+        // Act
+        ReflectionTestUtils.invokeMethod(revocationList, "load");
+
+        // Assert
+        assertTrue(revocationList.isRevoked("w789", new Date(expiresAt)));
+    }
+
+    @Test
+    public void testPurgeDropsExpiredBuckets() {
+        // Arrange
+        long past = System.currentTimeMillis() - 120_000;
+        when(repository.findAllByExpiresAtGreaterThan(anyLong())).thenReturn(List.of(new RevokedToken("old", past)));
+        ReflectionTestUtils.invokeMethod(revocationList, "load");
+        revocationList.revoke("current", new Date(System.currentTimeMillis() + 600_000));
+
+        // Act
+        revocationList.purgeExpired();
+
+        // Assert
+        assertEquals(1, revocationList.size());
+        assertFalse(revocationList.isRevoked("old", new Date(past)));
+        verify(repository, times(1)).deleteExpired(anyLong());
+    }
+}
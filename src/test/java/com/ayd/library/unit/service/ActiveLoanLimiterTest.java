@@ -0,0 +1,161 @@
+package com.ayd.library.unit.service;
+
+import com.ayd.library.dto.StudentLoanCountDto;
+import com.ayd.library.exception.LoanLimitException;
+import com.ayd.library.repository.LoanRepository;
+import com.ayd.library.service.ActiveLoanLimiter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ActiveLoanLimiterTest {
+
+    @Mock
+    private LoanRepository loanRepository;
+
+    private ActiveLoanLimiter limiter;
+
+    @BeforeEach
+    public void setUp() {
+        limiter = new ActiveLoanLimiter(loanRepository, 3);
+    }
+
+    @Test
+    public void testAcquireStopsAtLimit() throws LoanLimitException {
+        // Arrange
+        when(loanRepository.countByStatusAndStudent(anyString(), any())).thenReturn(1);
+
+        // Act
+        limiter.acquire("S1");
+        limiter.acquire("S1");
+
+        // Assert
+        assertThrows(LoanLimitException.class, () -> limiter.acquire("S1"));
+        assertEquals(3, limiter.active("S1"));
+        verify(loanRepository, times(1)).countByStatusAndStudent(anyString(), any());
+    }
+
+    @Test
+    public void testAcquireManyIsAllOrNothing() throws LoanLimitException {
+        // Arrange
+        when(loanRepository.countByStatusAndStudent(anyString(), any())).thenReturn(1);
+
+        // Act & Assert
+        assertThrows(LoanLimitException.class, () -> limiter.acquire("S1", 3));
+        assertEquals(1, limiter.active("S1"));
+        limiter.acquire("S1", 2);
+        assertEquals(3, limiter.active("S1"));
+    }
+
+    @Test
+    public void testRolledBackAcquireIsGivenBack() throws LoanLimitException {
+        // Arrange
+        when(loanRepository.countByStatusAndStudent(anyString(), any())).thenReturn(0);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // Act
+            limiter.acquire("S1");
+            assertEquals(1, limiter.active("S1"));
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        // Assert
+        assertEquals(0, limiter.active("S1"));
+    }
+
+    @Test
+    public void testReleaseWaitsForCommit() throws LoanLimitException {
+        // Arrange
+        when(loanRepository.countByStatusAndStudent(anyString(), any())).thenReturn(2);
+        limiter.acquire("S1");
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // Act
+            limiter.release("S1");
+            assertEquals(3, limiter.active("S1"));
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        // Assert
+        assertEquals(2, limiter.active("S1"));
+    }
+
+    @Test
+    public void testReconcileCorrectsCountsAndLoadsStudents() throws LoanLimitException {
+        // Arrange
+        when(loanRepository.countByStatusAndStudent(anyString(), any())).thenReturn(0);
+        limiter.acquire("S1");
+        when(loanRepository.countActiveByStudent()).thenReturn(List.of(new StudentLoanCountDto("S2", 2L)));
+
+        // Act
+        int corrected = limiter.reconcile();
+
+        // Assert
+        assertEquals(1, corrected);
+        assertEquals(0, limiter.active("S1"));
+        assertEquals(2, limiter.active("S2"));
+        assertEquals(0, limiter.active("S3"));
+        verify(loanRepository, times(1)).countByStatusAndStudent(anyString(), any());
+    }
+
+    @Test
+    public void testReconcileSkipsCheckoutsInFlight() throws LoanLimitException {
+        // Arrange
+        when(loanRepository.countByStatusAndStudent(anyString(), any())).thenReturn(0);
+        when(loanRepository.countActiveByStudent()).thenReturn(List.of());
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            limiter.acquire("S1");
+
+            // Act
+            int corrected = limiter.reconcile();
+
+            // Assert
+            assertEquals(0, corrected);
+            assertEquals(1, limiter.active("S1"));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    public void testReconcileSkipsReturnsInFlight() throws LoanLimitException {
+        // Arrange
+        when(loanRepository.countByStatusAndStudent(anyString(), any())).thenReturn(1);
+        limiter.acquire("S1");
+        when(loanRepository.countActiveByStudent()).thenReturn(List.of(new StudentLoanCountDto("S1", 1L)));
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            limiter.release("S1");
+
+            // Act
+            int corrected = limiter.reconcile();
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+            // Assert
+            assertEquals(0, corrected);
+            assertEquals(1, limiter.active("S1"));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+}
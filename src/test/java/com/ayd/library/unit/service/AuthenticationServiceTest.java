@@ -1,24 +1,26 @@
 package com.ayd.library.unit.service;
 
+import com.ayd.library.dto.user.AuthTokensDto;
 import com.ayd.library.dto.user.CredentialsDto;
 import com.ayd.library.dto.user.UserRequestDto;
 import com.ayd.library.enums.Rol;
 import com.ayd.library.exception.DuplicatedEntityException;
 import com.ayd.library.exception.NotFoundException;
 import com.ayd.library.exception.ServiceException;
+import com.ayd.library.exception.ServiceUnavailableException;
 import com.ayd.library.model.User;
 import com.ayd.library.repository.UserRepository;
+import com.ayd.library.security.PasswordVerificationExecutor;
 import com.ayd.library.service.AuthenticationService;
 import com.ayd.library.service.JwtService;
+import com.ayd.library.service.RefreshTokenService;
+import com.ayd.library.service.UserService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -36,15 +38,21 @@ public class AuthenticationServiceTest {
     @Mock
     private UserRepository userRepository;
 
-    @Mock
-    private AuthenticationManager authenticationManager;
-
     @Mock
     private JwtService jwtService;
 
     @Mock
     private PasswordEncoder encoder;
 
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private PasswordVerificationExecutor passwordVerifier;
+
+    @Mock
+    private RefreshTokenService refreshTokenService;
+
     @InjectMocks
     private AuthenticationService authenticationService;
 
@@ -129,6 +137,9 @@ public class AuthenticationServiceTest {
         verify(userRepository, times(1)).findByUsernameAndUserIdNot(userRequestDto.username(), user.getUserId());
         verify(userRepository, times(1)).findByEmailAndUserIdNot(userRequestDto.email(), user.getUserId());
         verify(userRepository, times(1)).save(any(User.class));
+        verify(userService, times(1)).evictUser(user);
+        verify(refreshTokenService, times(1)).revokeAllForUser(user.getUserId());
+        assertEquals(1, updatedUser.getTokenVersion());
     }
 
     @Test
@@ -142,6 +153,7 @@ public class AuthenticationServiceTest {
         verify(userRepository, times(0)).findByUsernameAndUserIdNot(anyString(), anyLong());
         verify(userRepository, times(0)).findByEmailAndUserIdNot(anyString(), anyLong());
         verify(userRepository, times(0)).save(any(User.class));
+        verify(refreshTokenService, times(0)).revokeAllForUser(anyLong());
     }
 
     @Test
@@ -177,39 +189,54 @@ public class AuthenticationServiceTest {
     public void testSignin() throws ServiceException, IOException {
         // Arrange
         when(userRepository.findByUsername(credentials.username())).thenReturn(Optional.of(user));
-
-        Authentication authentication = mock(Authentication.class);
-        when(authentication.isAuthenticated()).thenReturn(true);
-
-        when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
-                .thenReturn(authentication);
+        when(passwordVerifier.matches(credentials.password(), user.getPassword())).thenReturn(true);
         when(jwtService.generateToken(user)).thenReturn("token");
+        when(refreshTokenService.issue(user)).thenReturn("refresh");
 
         // Act
-        String token = authenticationService.signin(credentials);
+        AuthTokensDto tokens = authenticationService.signin(credentials);
 
         // Assert
-        assertNotNull(token);
-        assertEquals("token", token);
+        assertNotNull(tokens);
+        assertEquals("token", tokens.accessToken());
+        assertEquals("refresh", tokens.refreshToken());
         verify(userRepository, times(1)).findByUsername(credentials.username());
-        verify(authenticationManager, times(1)).authenticate(any(UsernamePasswordAuthenticationToken.class));
+        verify(passwordVerifier, times(1)).matches(credentials.password(), user.getPassword());
         verify(jwtService, times(1)).generateToken(user);
     }
 
     @Test
-    public void testSignin_UserNotFoundException() throws IOException {
+    public void testSignin_RehashesWeakPassword() throws ServiceException, IOException {
+        // Arrange
+        when(userRepository.findByUsername(credentials.username())).thenReturn(Optional.of(user));
+        when(passwordVerifier.matches(credentials.password(), user.getPassword())).thenReturn(true);
+        when(encoder.upgradeEncoding("123")).thenReturn(true);
+        when(passwordVerifier.encode(credentials.password())).thenReturn("strongerHash");
+        when(jwtService.generateToken(user)).thenReturn("token");
+
+        // Act
+        authenticationService.signin(credentials);
+
+        // Assert
+        assertEquals("strongerHash", user.getPassword());
+        verify(userRepository, times(1)).save(user);
+        verify(userService, times(1)).evictUserDetails(user.getUsername());
+    }
+
+    @Test
+    public void testSignin_UserNotFoundException() throws IOException, ServiceException {
         // Arrange
         when(userRepository.findByUsername(credentials.username())).thenReturn(Optional.empty());
 
         // Act & Assert
         assertThrows(NotFoundException.class, () -> authenticationService.signin(credentials));
         verify(userRepository, times(1)).findByUsername(credentials.username());
-        verify(authenticationManager, times(0)).authenticate(any(UsernamePasswordAuthenticationToken.class));
+        verify(passwordVerifier, times(0)).matches(anyString(), anyString());
         verify(jwtService, times(0)).generateToken(any(User.class));
     }
 
     @Test
-    public void testSignin_UserDisabledException() throws IOException {
+    public void testSignin_UserDisabledException() throws IOException, ServiceException {
         // Arrange
         user.setStatus((short)0);
         when(userRepository.findByUsername(credentials.username())).thenReturn(Optional.of(user));
@@ -217,20 +244,31 @@ public class AuthenticationServiceTest {
         // Act & Assert
         assertThrows(ServiceException.class, () -> authenticationService.signin(credentials));
         verify(userRepository, times(1)).findByUsername(credentials.username());
-        verify(authenticationManager, times(0)).authenticate(any(UsernamePasswordAuthenticationToken.class));
+        verify(passwordVerifier, times(0)).matches(anyString(), anyString());
         verify(jwtService, times(0)).generateToken(any(User.class));
     }
     @Test
-    public void testSignin_InvalidCredentialsException() throws IOException {
+    public void testSignin_InvalidCredentialsException() throws IOException, ServiceException {
         // Arrange
         when(userRepository.findByUsername(credentials.username())).thenReturn(Optional.of(user));
-        when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
-                .thenThrow(new UsernameNotFoundException("Invalid credentials") {});
+        when(passwordVerifier.matches(credentials.password(), user.getPassword())).thenReturn(false);
 
         // Act & Assert
         assertThrows(UsernameNotFoundException.class, () -> authenticationService.signin(credentials));
         verify(userRepository, times(1)).findByUsername(credentials.username());
-        verify(authenticationManager, times(1)).authenticate(any(UsernamePasswordAuthenticationToken.class));
+        verify(passwordVerifier, times(1)).matches(credentials.password(), user.getPassword());
+        verify(jwtService, times(0)).generateToken(any(User.class));
+    }
+
+    @Test
+    public void testSignin_ServiceUnavailableException() throws IOException, ServiceException {
+        // Arrange
+        when(userRepository.findByUsername(credentials.username())).thenReturn(Optional.of(user));
+        when(passwordVerifier.matches(credentials.password(), user.getPassword()))
+                .thenThrow(new ServiceUnavailableException("busy", 2));
+
+        // Act & Assert
+        assertThrows(ServiceUnavailableException.class, () -> authenticationService.signin(credentials));
         verify(jwtService, times(0)).generateToken(any(User.class));
     }
 
@@ -0,0 +1,163 @@
+package com.ayd.library.unit.service;
+
+import com.ayd.library.dto.BookSummaryDto;
+import com.ayd.library.model.Book;
+import com.ayd.library.repository.BookRepository;
+import com.ayd.library.service.BookCatalogCache;
+import com.ayd.library.service.BookChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class BookCatalogCacheTest {
+
+    @Mock
+    private BookRepository bookRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private BookCatalogCache catalogCache;
+    private Book book;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        catalogCache = new BookCatalogCache(bookRepository, 100, 600, meterRegistry);
+        book = Book.builder()
+                .code("B1")
+                .title("Rayuela")
+                .author("Cortazar")
+                .availableCopies(3)
+                .status(true)
+                .build();
+    }
+
+    @Test
+    public void testGetAllReadsMissesWithOneQuery() {
+        // Arrange
+        when(bookRepository.findById("B1")).thenReturn(Optional.of(book));
+        catalogCache.get("B1");
+        Book other = Book.builder().code("B2").title("Ficciones").author("Borges").status(true).build();
+        Book deleted = Book.builder().code("B3").title("Aleph").author("Borges").status(false).build();
+        when(bookRepository.findAllById(Set.of("B2", "B3", "B9"))).thenReturn(List.of(other, deleted));
+
+        // Act
+        Map<String, BookSummaryDto> books = catalogCache.getAll(List.of("B1", "B2", "B3", "B9"));
+
+        // Assert
+        assertEquals(Set.of("B1", "B2"), books.keySet());
+        assertEquals("Ficciones", books.get("B2").title());
+        verify(bookRepository, times(1)).findAllById(any());
+    }
+
+    @Test
+    public void testCodesAreLookedUpIgnoringCase() {
+        // Arrange
+        when(bookRepository.findById("B1")).thenReturn(Optional.of(book));
+
+        // Act
+        BookSummaryDto lower = catalogCache.get("b1").orElseThrow();
+        Map<String, BookSummaryDto> books = catalogCache.getAll(List.of("b1"));
+
+        // Assert
+        assertEquals("B1", lower.code());
+        assertSame(lower, books.get("B1"));
+        verify(bookRepository, times(1)).findById("B1");
+        verify(bookRepository, never()).findAllById(any());
+    }
+
+    @Test
+    public void testSoftDeletedBookIsNotFound() {
+        // Arrange
+        book.setStatus(false);
+        when(bookRepository.findById("B1")).thenReturn(Optional.of(book));
+
+        // Act & Assert
+        assertTrue(catalogCache.get("B1").isEmpty());
+    }
+
+    @Test
+    public void testLookupIsReadThroughWithoutInventory() {
+        // Arrange
+        when(bookRepository.findById("B1")).thenReturn(Optional.of(book));
+
+        // Act
+        BookSummaryDto first = catalogCache.get("B1").orElseThrow();
+        BookSummaryDto second = catalogCache.get("B1").orElseThrow();
+
+        // Assert
+        assertSame(first, second);
+        assertEquals("Rayuela", first.title());
+        assertNull(first.availableCopies());
+        verify(bookRepository, times(1)).findById("B1");
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "books.catalog").tag("result", "hit").functionCounter().count());
+    }
+
+    @Test
+    public void testConcurrentMissesShareOneLoad() throws Exception {
+        // Arrange
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(bookRepository.findById("B1")).thenAnswer(invocation -> {
+            loading.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return Optional.of(book);
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<Optional<BookSummaryDto>>> futures = new ArrayList<>();
+
+        // Act
+        futures.add(executor.submit(() -> catalogCache.get("B1")));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 7; i++)
+            futures.add(executor.submit(() -> catalogCache.get("B1")));
+        release.countDown();
+        for (Future<Optional<BookSummaryDto>> future : futures)
+            assertTrue(future.get(5, TimeUnit.SECONDS).isPresent());
+        executor.shutdown();
+
+        // Assert
+        verify(bookRepository, times(1)).findById("B1");
+    }
+
+    @Test
+    public void testBookChangeInvalidatesEntry() {
+        // Arrange
+        when(bookRepository.findById("B1")).thenReturn(Optional.of(book));
+        catalogCache.get("B1");
+
+        // Act
+        catalogCache.onBookChanged(new BookChangedEvent("B1", "Rayuela", "Cortazar", null, true));
+        catalogCache.get("B1");
+
+        // Assert
+        verify(bookRepository, times(2)).findById("B1");
+    }
+
+    @Test
+    public void testMissingBookIsNotCached() {
+        // Arrange
+        when(bookRepository.findById("B9")).thenReturn(Optional.empty());
+
+        // Act
+        catalogCache.get("B9");
+        catalogCache.get("B9");
+
+        // Assert
+        verify(bookRepository, times(2)).findById("B9");
+    }
+}
@@ -0,0 +1,103 @@
+package com.ayd.library.unit.service;
+
+import com.ayd.library.dto.BookSummaryDto;
+import com.ayd.library.enums.BookSort;
+import com.ayd.library.exception.InvalidRequestException;
+import com.ayd.library.repository.BookRepository;
+import com.ayd.library.service.BookExportService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class BookExportServiceTest {
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private BookExportService exportService;
+
+    @BeforeEach
+    public void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        exportService = new BookExportService(bookRepository, transactionTemplate, objectMapper, 2);
+    }
+
+    @Test
+    public void testExportCsvWalksKeysetChunks() throws Exception {
+        // Arrange
+        inTransaction();
+        when(bookRepository.findActivePage(eq(BookSort.CODE), eq(false), isNull(), isNull(), eq(2), anySet()))
+                .thenReturn(List.of(book("B1", "Cien anos, de soledad"), book("B2", "El \"Quijote\"")));
+        when(bookRepository.findActivePage(eq(BookSort.CODE), eq(false), isNull(), eq("B2"), eq(2), anySet()))
+                .thenReturn(List.of(book("B3", "Rayuela")));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        long rows = exportService.export(out, "text/csv", false);
+
+        // Assert
+        assertEquals(3, rows);
+        assertEquals("""
+                code,title,author,publicationDate,publisher,availableCopies
+                B1,"Cien anos, de soledad",Autor,2020-01-15,,3
+                B2,"El ""Quijote\"\"",Autor,2020-01-15,,3
+                B3,Rayuela,Autor,2020-01-15,,3
+                """, out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testExportNdjsonGzipped() throws Exception {
+        // Arrange
+        inTransaction();
+        when(bookRepository.findActivePage(eq(BookSort.CODE), eq(false), isNull(), isNull(), eq(2), anySet()))
+                .thenReturn(List.of(book("B1", "Rayuela")));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        exportService.export(out, "application/x-ndjson", true);
+
+        // Assert
+        byte[] body = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray())).readAllBytes();
+        assertEquals("{\"code\":\"B1\",\"title\":\"Rayuela\",\"author\":\"Autor\",\"publicationDate\":\"2020-01-15\",\"availableCopies\":3}\n",
+                new String(body, StandardCharsets.UTF_8));
+        verify(bookRepository, times(1)).findActivePage(any(), anyBoolean(), any(), any(), anyInt(), anySet());
+    }
+
+    @Test
+    public void testUnknownFormatIsRejected() {
+        // Act & Assert
+        assertEquals("text/csv", assertDoesNotThrow(() -> exportService.contentType(null)));
+        assertThrows(InvalidRequestException.class, () -> exportService.contentType("xlsx"));
+    }
+
+    private void inTransaction() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<List<BookSummaryDto>>>getArgument(0).doInTransaction(null));
+    }
+
+    private static BookSummaryDto book(String code, String title) {
+        return new BookSummaryDto(code, title, "Autor", LocalDate.of(2020, 1, 15), null, 3);
+    }
+}
@@ -0,0 +1,245 @@
+package com.ayd.library.unit.service;
+
+import com.ayd.library.dto.BookImportResultDto;
+import com.ayd.library.dto.BookSummaryDto;
+import com.ayd.library.enums.BookSort;
+import com.ayd.library.exception.InvalidRequestException;
+import com.ayd.library.repository.BookRepository;
+import com.ayd.library.service.BookChangedEvent;
+import com.ayd.library.service.BookExportService;
+import com.ayd.library.service.BookImportService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class BookImportServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private BookImportService importService;
+
+    @BeforeEach
+    public void setUp() {
+        importService = new BookImportService(jdbcTemplate, transactionTemplate, bookRepository, eventPublisher,
+                new ObjectMapper().findAndRegisterModules(), 2, 10);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testImportCsvInChunks() throws Exception {
+        // Arrange
+        inTransaction();
+        when(bookRepository.findExistingCodes(anyCollection())).thenReturn(List.of());
+        String csv = """
+                code,title,author,publicationDate,publisher,availableCopies
+                B1,"Cien anos, de soledad",Garcia Marquez,1967-05-30,Sudamericana,3
+                B2,"El \"\"Quijote\"\"",Cervantes,,,1
+                B3,Rayuela,Cortazar,,Sudamericana,2
+                """;
+
+        // Act
+        BookImportResultDto result = importService.importBooks(stream(csv), "text/csv; charset=UTF-8");
+
+        // Assert
+        assertEquals(3, result.rows());
+        assertEquals(3, result.imported());
+        assertEquals(0, result.failed());
+        ArgumentCaptor<List<Object[]>> batches = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), batches.capture());
+        List<Object[]> first = batches.getAllValues().get(0);
+        assertArrayEquals(new Object[]{"B1", "Cien anos, de soledad", "Garcia Marquez", Date.valueOf("1967-05-30"), "Sudamericana", 3},
+                first.get(0));
+        assertEquals("El \"Quijote\"", first.get(1)[1]);
+        assertEquals(1, batches.getAllValues().get(1).size());
+        verify(eventPublisher, times(3)).publishEvent(any(BookChangedEvent.class));
+    }
+
+    @Test
+    public void testImportReportsRowErrorsAndDuplicates() throws Exception {
+        // Arrange
+        inTransaction();
+        when(bookRepository.findExistingCodes(anyCollection())).thenReturn(List.of("B1")).thenReturn(List.of("B3"));
+        String ndjson = """
+                {"code":"B1","title":"Ya existe","author":"Autor","availableCopies":1}
+                {"code":"B2","title":"Sin copias","author":"Autor"}
+                not json
+                {"code":"B3","title":"Nuevo","author":"Autor","availableCopies":4}
+                {"code":"B3","title":"Repetido","author":"Autor","availableCopies":4}
+                """;
+
+        // Act
+        BookImportResultDto result = importService.importBooks(stream(ndjson), "application/x-ndjson");
+
+        // Assert
+        assertEquals(5, result.rows());
+        assertEquals(1, result.imported());
+        assertEquals(4, result.failed());
+        assertEquals(List.of(2L, 3L, 1L, 5L), result.errors().stream().map(error -> error.line()).toList());
+        assertEquals("B1", result.errors().get(2).code());
+    }
+
+    @Test
+    public void testImportComparesCodesIgnoringCase() throws Exception {
+        // Arrange
+        inTransaction();
+        when(bookRepository.findExistingCodes(anyCollection())).thenReturn(List.of("ABC"));
+        String ndjson = """
+                {"code":"x1","title":"Nuevo","author":"Autor","availableCopies":1}
+                {"code":"X1","title":"Repetido","author":"Autor","availableCopies":1}
+                {"code":"abc","title":"Ya existe","author":"Autor","availableCopies":1}
+                """;
+
+        // Act
+        BookImportResultDto result = importService.importBooks(stream(ndjson), "application/x-ndjson");
+
+        // Assert
+        assertEquals(1, result.imported());
+        assertEquals(2, result.failed());
+        assertEquals(List.of(2L, 3L), result.errors().stream().map(error -> error.line()).toList());
+    }
+
+    @Test
+    public void testImportReportsChunkRejectedTwiceAsRowErrors() throws Exception {
+        // Arrange
+        inTransaction();
+        when(bookRepository.findExistingCodes(anyCollection())).thenReturn(List.of());
+        when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+                .thenThrow(new DuplicateKeyException("B1"))
+                .thenThrow(new DuplicateKeyException("B1"))
+                .thenReturn(new int[]{1});
+        String ndjson = """
+                {"code":"B1","title":"Uno","author":"Autor","availableCopies":1}
+                {"code":"B2","title":"Dos","author":"Autor","availableCopies":1}
+                {"code":"B3","title":"Tres","author":"Autor","availableCopies":1}
+                """;
+
+        // Act
+        BookImportResultDto result = importService.importBooks(stream(ndjson), "application/x-ndjson");
+
+        // Assert
+        assertEquals(3, result.rows());
+        assertEquals(1, result.imported());
+        assertEquals(2, result.failed());
+        assertEquals(List.of(1L, 2L), result.errors().stream().map(error -> error.line()).toList());
+        verify(jdbcTemplate, times(3)).batchUpdate(anyString(), anyList());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testImportReadsWhatExportWrites() throws Exception {
+        // Arrange
+        inTransaction();
+        when(bookRepository.findActivePage(eq(BookSort.CODE), eq(false), isNull(), isNull(), anyInt(), anySet()))
+                .thenReturn(List.of(
+                        new BookSummaryDto("B1", "Primera linea\nsegunda, \"tercera\"", "Autor", null, null, 2),
+                        new BookSummaryDto("B2", "Rayuela", "Cortazar", LocalDate.of(1963, 6, 28), "Sudamericana", 1)));
+        when(bookRepository.findExistingCodes(anyCollection())).thenReturn(List.of());
+        ByteArrayOutputStream exported = new ByteArrayOutputStream();
+        new BookExportService(bookRepository, transactionTemplate, new ObjectMapper(), 10).export(exported, "text/csv", false);
+
+        // Act
+        BookImportResultDto result = importService.importBooks(new ByteArrayInputStream(exported.toByteArray()), "text/csv");
+
+        // Assert
+        assertEquals(2, result.rows());
+        assertEquals(2, result.imported());
+        ArgumentCaptor<List<Object[]>> batches = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), batches.capture());
+        assertArrayEquals(new Object[]{"B1", "Primera linea\nsegunda, \"tercera\"", "Autor", null, null, 2},
+                batches.getValue().get(0));
+        assertArrayEquals(new Object[]{"B2", "Rayuela", "Cortazar", Date.valueOf("1963-06-28"), "Sudamericana", 1},
+                batches.getValue().get(1));
+    }
+
+    @Test
+    public void testStrayQuoteFailsOnlyItsRow() throws Exception {
+        // Arrange
+        inTransaction();
+        when(bookRepository.findExistingCodes(anyCollection())).thenReturn(List.of());
+        StringBuilder csv = new StringBuilder("code,title,author,publicationDate,publisher,availableCopies\n")
+                .append("B0,\"Sin cerrar,Autor,,,1\n");
+        for (int i = 1; i <= 30; i++)
+            csv.append("B").append(i).append(",Libro ").append(i).append(",Autor,,,1\n");
+
+        // Act
+        BookImportResultDto result = importService.importBooks(stream(csv.toString()), "text/csv");
+
+        // Assert
+        assertEquals(31, result.rows());
+        assertEquals(30, result.imported());
+        assertEquals(1, result.failed());
+        assertEquals(2L, result.errors().get(0).line());
+    }
+
+    @Test
+    public void testStrayQuoteNearTheEndFailsOnlyItsRow() throws Exception {
+        // Arrange
+        inTransaction();
+        when(bookRepository.findExistingCodes(anyCollection())).thenReturn(List.of());
+        String csv = """
+                code,title,author,publicationDate,publisher,availableCopies
+                B1,Rayuela,Cortazar,,,1
+                B2,"Sin cerrar,Autor,,,1
+                B3,Ficciones,Borges,,,1
+                B4,Aleph,Borges,,,1
+                """;
+
+        // Act
+        BookImportResultDto result = importService.importBooks(stream(csv), "text/csv");
+
+        // Assert
+        assertEquals(4, result.rows());
+        assertEquals(3, result.imported());
+        assertEquals(List.of(3L), result.errors().stream().map(error -> error.line()).toList());
+    }
+
+    @Test
+    public void testImportRejectsMissingColumnsAndUnknownFormat() {
+        // Act & Assert
+        assertThrows(InvalidRequestException.class,
+                () -> importService.importBooks(stream("code,title\nB1,Rayuela\n"), "text/csv"));
+        assertThrows(InvalidRequestException.class,
+                () -> importService.importBooks(stream("B1"), "application/json"));
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    private void inTransaction() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<Integer>>getArgument(0).doInTransaction(null));
+    }
+
+    private static ByteArrayInputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -1,22 +1,38 @@
 package com.ayd.library.unit.service;
 
+import com.ayd.library.dto.BookPageDto;
 import com.ayd.library.dto.BookRequestDto;
+import com.ayd.library.dto.BookSummaryDto;
+import com.ayd.library.enums.BookField;
+import com.ayd.library.enums.BookSort;
 import com.ayd.library.exception.DuplicatedEntityException;
+import com.ayd.library.exception.InvalidRequestException;
 import com.ayd.library.exception.NotFoundException;
 import com.ayd.library.model.Book;
 import com.ayd.library.repository.BookRepository;
+import com.ayd.library.search.BookSearchIndex;
+import com.ayd.library.search.BookSuggester;
+import com.ayd.library.service.BookCatalogCache;
+import com.ayd.library.service.BookChangedEvent;
 import com.ayd.library.service.BookService;
+import com.ayd.library.service.InventoryService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
 import java.time.LocalDate;
@@ -30,6 +46,21 @@ class BookServiceTest {
     @Mock
     private BookRepository bookRepository;
 
+    @Mock
+    private BookSearchIndex searchIndex;
+
+    @Mock
+    private BookSuggester suggester;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private BookCatalogCache catalogCache;
+
+    @Mock
+    private InventoryService inventoryService;
+
     @InjectMocks
     private BookService bookService;
 
@@ -56,6 +87,9 @@ class BookServiceTest {
                 .publisher("Test Publisher")
                 .status(true)
                 .build();
+
+        ReflectionTestUtils.setField(bookService, "defaultPageSize", 2);
+        ReflectionTestUtils.setField(bookService, "maxPageSize", 10);
     }
 
     @Test
@@ -72,6 +106,7 @@ class BookServiceTest {
         assertEquals(bookRequestDto.getCode(), createdBook.getCode());
         verify(bookRepository, times(1)).findById(bookRequestDto.getCode());
         verify(bookRepository, times(1)).save(any(Book.class));
+        verify(eventPublisher, times(1)).publishEvent(BookChangedEvent.of(book));
     }
     @Test
     public void testCreateBook_DuplicatedEntityException() {
@@ -99,6 +134,23 @@ class BookServiceTest {
         assertEquals(bookRequestDto.getTitle(), updatedBook.getTitle());
         verify(bookRepository, times(1)).findById(bookRequestDto.getCode());
         verify(bookRepository, times(1)).save(any(Book.class));
+        verify(catalogCache, times(1)).invalidate(bookRequestDto.getCode());
+        verify(inventoryService, times(1)).flush(bookRequestDto.getCode());
+    }
+
+    @Test
+    void testUpdateBookMovesTheCounterByTheEditedCopies() throws NotFoundException {
+        // Arrange
+        bookRequestDto.setAvailableCopies(12);
+        when(bookRepository.findById(bookRequestDto.getCode())).thenReturn(Optional.of(book));
+        when(bookRepository.save(any(Book.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        bookService.updateBook(bookRequestDto.getCode(), bookRequestDto);
+
+        // Assert
+        verify(inventoryService).adjust("123", 2);
+        verify(inventoryService, never()).evict(anyString());
     }
     @Test
     public void testUpdateBook_NotFoundException() {
@@ -135,6 +187,30 @@ class BookServiceTest {
         verify(bookRepository, times(1)).findById(bookRequestDto.getCode());
     }
 
+    @Test
+    void getBookReferenceChecksCatalogCache() throws NotFoundException {
+        // Arrange
+        when(catalogCache.get("123")).thenReturn(Optional.of(summary("123", "Test Title")));
+        when(bookRepository.getReferenceById("123")).thenReturn(book);
+
+        // Act
+        Book reference = bookService.getBookReference("123");
+
+        // Assert
+        assertSame(book, reference);
+        verify(bookRepository, never()).findById(any());
+    }
+
+    @Test
+    void getBookReference_NotFound() {
+        // Arrange
+        when(catalogCache.get("999")).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(NotFoundException.class, () -> bookService.getBookReference("999"));
+        verify(bookRepository, never()).getReferenceById(any());
+    }
+
 
     @Test
     void softDeleteBook() throws  NotFoundException {
@@ -161,4 +237,82 @@ class BookServiceTest {
         verify(bookRepository, times(1)).findById(bookRequestDto.getCode());
         verify(bookRepository, times(0)).save(any(Book.class));
     }
-}
\ No newline at end of file
+
+    @Test
+    void getCatalogPage_ContinuesAfterCursor() throws InvalidRequestException {
+        // Arrange
+        var all = EnumSet.allOf(BookField.class);
+        when(bookRepository.findActivePage(BookSort.TITLE, true, null, null, 3, all))
+                .thenReturn(new ArrayList<>(List.of(summary("C", "Zorro"), summary("A", "Luna"), summary("B", "Luna"))));
+        when(bookRepository.findActivePage(BookSort.TITLE, true, "Luna", "A", 3, all))
+                .thenReturn(new ArrayList<>(List.of(summary("B", "Luna"))));
+
+        // Act
+        BookPageDto first = bookService.getCatalogPage(null, "title", "desc", null, null);
+        BookPageDto second = bookService.getCatalogPage(first.next(), null, null, null, null);
+
+        // Assert
+        assertEquals(2, first.items().size());
+        assertNotNull(first.next());
+        assertEquals(1, second.items().size());
+        assertEquals("B", second.items().get(0).code());
+        assertNull(second.next());
+    }
+
+    @Test
+    void getCatalogPage_SparseFieldsKeepCodeAndSortKey() throws InvalidRequestException {
+        // Arrange
+        var expected = EnumSet.of(BookField.CODE, BookField.AUTHOR, BookField.AVAILABLE_COPIES);
+        when(bookRepository.findActivePage(BookSort.AUTHOR, false, null, null, 3, expected)).thenReturn(new ArrayList<>());
+
+        // Act
+        BookPageDto page = bookService.getCatalogPage(null, "author", null, null, "availableCopies");
+
+        // Assert
+        assertTrue(page.items().isEmpty());
+        assertNull(page.next());
+    }
+
+    @Test
+    void getCatalogPage_InvalidParameters() {
+        // Act & Assert
+        assertThrows(InvalidRequestException.class, () -> bookService.getCatalogPage(null, null, null, 11, null));
+        assertThrows(InvalidRequestException.class, () -> bookService.getCatalogPage(null, "isbn", null, null, null));
+        assertThrows(InvalidRequestException.class, () -> bookService.getCatalogPage(null, null, "up", null, null));
+        assertThrows(InvalidRequestException.class, () -> bookService.getCatalogPage("not-a-cursor", null, null, null, null));
+        assertThrows(InvalidRequestException.class, () -> bookService.getCatalogPage(null, null, null, null, "title,loans"));
+        verifyNoInteractions(bookRepository);
+    }
+
+    @Test
+    void searchBooksKeepsIndexOrder() throws Exception {
+        // Arrange
+        when(searchIndex.search("dragon", 2)).thenReturn(List.of("B2", "B1"));
+        when(bookRepository.findSummariesByCodeIn(List.of("B2", "B1")))
+                .thenReturn(List.of(summary("B1", "Dragon"), summary("B2", "El dragon")));
+
+        // Act
+        List<BookSummaryDto> result = bookService.searchBooks("dragon", 2);
+
+        // Assert
+        assertEquals(List.of("B2", "B1"), result.stream().map(BookSummaryDto::code).toList());
+    }
+
+    @Test
+    void suggestBooks_InvalidLimit() {
+        // Act & Assert
+        assertThrows(InvalidRequestException.class, () -> bookService.suggestBooks("cie", 0));
+        verifyNoInteractions(suggester);
+    }
+
+    @Test
+    void searchBooks_EmptyQuery() {
+        // Act & Assert
+        assertThrows(InvalidRequestException.class, () -> bookService.searchBooks(" ", null));
+        verifyNoInteractions(searchIndex);
+    }
+
+    private static BookSummaryDto summary(String code, String title) {
+        return new BookSummaryDto(code, title, "Autor", null, null, 1);
+    }
+}
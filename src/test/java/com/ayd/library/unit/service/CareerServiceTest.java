@@ -5,6 +5,7 @@ import com.ayd.library.exception.NotFoundException;
 import com.ayd.library.model.Career;
 import com.ayd.library.repository.CareerRepository;
 import com.ayd.library.service.CareerService;
+import com.ayd.library.service.CatalogVersion;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -25,6 +26,9 @@ public class CareerServiceTest {
     @Mock
     private CareerRepository careerRepository;
 
+    @Mock
+    private CatalogVersion catalogVersion;
+
     @InjectMocks
     private CareerService careerService;
 
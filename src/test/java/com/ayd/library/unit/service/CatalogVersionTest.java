@@ -0,0 +1,56 @@
+package com.ayd.library.unit.service;
+
+import com.ayd.library.service.BookChangedEvent;
+import com.ayd.library.service.CatalogVersion;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CatalogVersionTest {
+
+    private final CatalogVersion catalogVersion = new CatalogVersion();
+
+    @Test
+    public void testBumpOutsideTransactionMovesVersion() {
+        // Arrange
+        String before = catalogVersion.etag();
+
+        // Act
+        catalogVersion.bump();
+
+        // Assert
+        assertNotEquals(before, catalogVersion.etag());
+    }
+
+    @Test
+    public void testBumpWaitsForCommit() {
+        // Arrange
+        long before = catalogVersion.current();
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // Act
+            catalogVersion.bump();
+            assertEquals(before, catalogVersion.current());
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        // Assert
+        assertEquals(before + 1, catalogVersion.current());
+    }
+
+    @Test
+    public void testBookChangeMovesVersion() {
+        // Arrange
+        long before = catalogVersion.current();
+
+        // Act
+        catalogVersion.onBookChanged(new BookChangedEvent("B1", "Rayuela", "Cortazar", null, true));
+
+        // Assert
+        assertEquals(before + 1, catalogVersion.current());
+    }
+}
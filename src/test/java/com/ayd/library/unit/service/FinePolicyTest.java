@@ -0,0 +1,35 @@
+package com.ayd.library.unit.service;
+
+import com.ayd.library.service.FinePolicy;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FinePolicyTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2024, 5, 20);
+
+    @Test
+    public void testFineGrowsPerDayAfterGrace() {
+        // Arrange
+        FinePolicy policy = new FinePolicy(new BigDecimal("2.50"), 2, BigDecimal.ZERO);
+
+        // Act & Assert
+        assertEquals(new BigDecimal("0.00"), policy.fineFor(TODAY.minusDays(2), TODAY));
+        assertEquals(new BigDecimal("2.50"), policy.fineFor(TODAY.minusDays(3), TODAY));
+        assertEquals(new BigDecimal("25.00"), policy.fineFor(TODAY.minusDays(12), TODAY));
+    }
+
+    @Test
+    public void testFineIsCapped() {
+        // Arrange
+        FinePolicy policy = new FinePolicy(new BigDecimal("1.00"), 0, new BigDecimal("10.00"));
+
+        // Act & Assert
+        assertEquals(new BigDecimal("9.00"), policy.fineFor(TODAY.minusDays(9), TODAY));
+        assertEquals(new BigDecimal("10.00"), policy.fineFor(TODAY.minusDays(400), TODAY));
+    }
+}
@@ -0,0 +1,234 @@
+package com.ayd.library.unit.service;
+
+import com.ayd.library.enums.InventoryState;
+import com.ayd.library.exception.EnoughException;
+import com.ayd.library.model.Book;
+import com.ayd.library.model.Loan;
+import com.ayd.library.repository.BookRepository;
+import com.ayd.library.repository.LoanRepository;
+import com.ayd.library.service.CatalogVersion;
+import com.ayd.library.service.InventoryService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class InventoryServiceTest {
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @Mock
+    private LoanRepository loanRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private InventoryService inventoryService;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        inventoryService = new InventoryService(bookRepository, loanRepository, transactionTemplate, new CatalogVersion(), 1000, meterRegistry);
+    }
+
+    @Test
+    public void testCheckoutTakesCopiesFromCounter() throws EnoughException {
+        // Arrange
+        when(bookRepository.findEffectiveAvailableCopies("B1")).thenReturn(Optional.of(2L));
+
+        // Act
+        inventoryService.checkout("B1");
+        inventoryService.checkout("B1");
+
+        // Assert
+        assertThrows(EnoughException.class, () -> inventoryService.checkout("B1"));
+        assertEquals(0, inventoryService.available("B1"));
+        verify(bookRepository, times(1)).findEffectiveAvailableCopies("B1");
+        verify(bookRepository, never()).adjustAvailableCopies(anyString(), anyInt());
+    }
+
+    @Test
+    public void testConcurrentCheckoutsNeverOversell() throws Exception {
+        // Arrange
+        when(bookRepository.findEffectiveAvailableCopies("HOT")).thenReturn(Optional.of(5L));
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger taken = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    inventoryService.checkout("HOT");
+                    taken.incrementAndGet();
+                } catch (EnoughException ignored) {
+                }
+                return null;
+            }));
+        }
+
+        // Act
+        start.countDown();
+        for (Future<?> future : futures)
+            future.get(10, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        // Assert
+        assertEquals(5, taken.get());
+        assertEquals(0, inventoryService.available("HOT"));
+    }
+
+    @Test
+    public void testRolledBackCheckoutGivesCopyBack() throws EnoughException {
+        // Arrange
+        when(bookRepository.findEffectiveAvailableCopies("B1")).thenReturn(Optional.of(1L));
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // Act
+            inventoryService.checkout("B1");
+            assertEquals(0, inventoryService.available("B1"));
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        // Assert
+        assertEquals(1, inventoryService.available("B1"));
+    }
+
+    @Test
+    public void testCopiesEditedBeforeACheckoutCommitsKeepThatCheckout() throws EnoughException {
+        // Arrange
+        when(bookRepository.findEffectiveAvailableCopies("B1")).thenReturn(Optional.of(2L));
+        List<TransactionSynchronization> checkoutTransaction = checkoutInTransaction("B1");
+
+        // Act
+        inventoryService.adjust("B1", 1);
+        checkoutTransaction.forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+        // Assert
+        assertEquals(2, inventoryService.available("B1"));
+        verify(bookRepository, times(1)).findEffectiveAvailableCopies("B1");
+    }
+
+    @Test
+    public void testCheckoutRolledBackAfterACopiesEditIsStillGivenBack() throws EnoughException {
+        // Arrange
+        when(bookRepository.findEffectiveAvailableCopies("B1")).thenReturn(Optional.of(2L));
+        List<TransactionSynchronization> checkoutTransaction = checkoutInTransaction("B1");
+
+        // Act
+        inventoryService.adjust("B1", 1);
+        checkoutTransaction.forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        // Assert
+        assertEquals(3, inventoryService.available("B1"));
+    }
+
+    @Test
+    public void testCheckinLeavesUnloadedCounterAlone() {
+        // Act
+        inventoryService.checkin("B1");
+
+        // Assert
+        verifyNoInteractions(bookRepository);
+    }
+
+    @Test
+    public void testFlushWritesOneUpdatePerBook() {
+        // Arrange
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<Integer>>getArgument(0).doInTransaction(null));
+        List<Loan> pending = List.of(
+                loan(1L, "B1", InventoryState.CHECKOUT_PENDING),
+                loan(2L, "B1", InventoryState.CHECKOUT_PENDING),
+                loan(3L, "B1", InventoryState.CHECKOUT_PENDING),
+                loan(4L, "B1", InventoryState.RETURN_PENDING),
+                loan(5L, "B2", InventoryState.RETURN_PENDING),
+                loan(6L, "B3", InventoryState.CHECKOUT_PENDING),
+                loan(7L, "B3", InventoryState.RETURN_PENDING));
+        when(loanRepository.findByInventoryStateInOrderById(any(), any())).thenReturn(pending);
+
+        // Act
+        int applied = inventoryService.flush();
+
+        // Assert
+        assertEquals(7, applied);
+        verify(bookRepository).adjustAvailableCopies("B1", -2);
+        verify(bookRepository).adjustAvailableCopies("B2", 1);
+        verify(bookRepository, never()).adjustAvailableCopies(eq("B3"), anyInt());
+        verify(loanRepository).updateInventoryState(List.of(1L, 2L, 3L, 4L, 5L, 6L, 7L), InventoryState.APPLIED);
+        assertEquals(7.0, meterRegistry.get("inventory.flush.loans").counter().count());
+    }
+
+    @Test
+    public void testFlushOfOneBookAppliesItsPendingLoansBeforeAnEdit() {
+        // Arrange
+        when(loanRepository.findByBookCodeCodeAndInventoryStateIn(eq("B1"), any())).thenReturn(List.of(
+                loan(1L, "B1", InventoryState.CHECKOUT_PENDING),
+                loan(2L, "B1", InventoryState.CHECKOUT_PENDING),
+                loan(3L, "B1", InventoryState.RETURN_PENDING)));
+
+        // Act
+        int applied = inventoryService.flush("B1");
+
+        // Assert
+        assertEquals(3, applied);
+        verify(bookRepository).adjustAvailableCopies("B1", -1);
+        verify(loanRepository).updateInventoryState(List.of(1L, 2L, 3L), InventoryState.APPLIED);
+        verifyNoInteractions(transactionTemplate);
+    }
+
+    @Test
+    public void testFlushOfBookWithoutPendingLoansWritesNothing() {
+        // Arrange
+        when(loanRepository.findByBookCodeCodeAndInventoryStateIn(eq("B1"), any())).thenReturn(List.of());
+
+        // Act
+        int applied = inventoryService.flush("B1");
+
+        // Assert
+        assertEquals(0, applied);
+        verifyNoInteractions(bookRepository);
+        verify(loanRepository, never()).updateInventoryState(any(), any());
+    }
+
+    private List<TransactionSynchronization> checkoutInTransaction(String code) throws EnoughException {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            inventoryService.checkout(code);
+            return TransactionSynchronizationManager.getSynchronizations();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private static Loan loan(Long id, String bookCode, InventoryState state) {
+        return Loan.builder()
+                .id(id)
+                .bookCode(Book.builder().code(bookCode).build())
+                .inventoryState(state)
+                .build();
+    }
+}
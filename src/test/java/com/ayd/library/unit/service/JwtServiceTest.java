@@ -0,0 +1,116 @@
+package com.ayd.library.unit.service;
+
+import com.ayd.library.enums.Rol;
+import com.ayd.library.model.RevokedToken;
+import com.ayd.library.model.User;
+import com.ayd.library.model.UserInfoDetails;
+import com.ayd.library.repository.RevokedTokenRepository;
+import com.ayd.library.security.TokenRevocationList;
+import com.ayd.library.security.VerifiedClaimsCache;
+import com.ayd.library.service.JwtService;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class JwtServiceTest {
+
+    @Mock
+    private RevokedTokenRepository revokedTokenRepository;
+
+    private TokenRevocationList revocationList;
+    private SimpleMeterRegistry meterRegistry;
+    private JwtService jwtService;
+    private User user;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        revocationList = new TokenRevocationList(revokedTokenRepository, 5, 1000);
+        jwtService = new JwtService(new VerifiedClaimsCache(100, meterRegistry), revocationList);
+        ReflectionTestUtils.setField(jwtService, "tokenValidTime", 60);
+        ReflectionTestUtils.setField(jwtService, "jwtSigningKey", "413F4428472B4B6250655368566D5970337336763979244226452948404D6351");
+        ReflectionTestUtils.invokeMethod(jwtService, "init");
+
+        user = User.builder()
+                .userId(1L)
+                .username("admin")
+                .password("123")
+                .role(Rol.ADMIN)
+                .status((short) 1)
+                .build();
+    }
+
+    @Test
+    public void testGenerateAndValidateToken() throws IOException {
+        // Act
+        String token = jwtService.generateToken(user);
+
+        // Assert
+        assertEquals("admin", jwtService.extractUserName(token));
+        assertTrue(jwtService.isTokenValid(token, new UserInfoDetails(user)));
+    }
+
+    @Test
+    public void testGeneratedTokensHaveDistinctIds() throws IOException {
+        // Act
+        Claims first = jwtService.extractAllClaims(jwtService.generateToken(user));
+        Claims second = jwtService.extractAllClaims(jwtService.generateToken(user));
+
+        // Assert
+        assertNotEquals(first.getId(), second.getId());
+        assertEquals(0, first.get("ver", Integer.class));
+        assertEquals(first.getIssuedAt().getTime() + 60 * 60 * 1000, first.getExpiration().getTime());
+    }
+
+    @Test
+    public void testVerifiedClaimsAreCached() throws IOException {
+        // Arrange
+        String token = jwtService.generateToken(user);
+
+        // Act
+        Claims first = jwtService.extractAllClaims(token);
+        Claims second = jwtService.extractAllClaims(token);
+
+        // Assert
+        assertSame(first, second);
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "jwt.claims").tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "jwt.claims").tag("result", "miss").functionCounter().count());
+    }
+
+    @Test
+    public void testTamperedTokenIsRejected() throws IOException {
+        // Arrange
+        String token = jwtService.generateToken(user);
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+        // Act & Assert
+        assertThrows(RuntimeException.class, () -> jwtService.extractAllClaims(tampered));
+    }
+
+    @Test
+    public void testRevokedTokenIsInvalid() throws IOException {
+        // Arrange
+        String token = jwtService.generateToken(user);
+        UserInfoDetails details = new UserInfoDetails(user);
+        assertTrue(jwtService.isTokenValid(token, details));
+
+        // Act
+        jwtService.revokeToken(token);
+
+        // Assert
+        assertFalse(jwtService.isTokenValid(token, details));
+        verify(revokedTokenRepository, times(1)).save(any(RevokedToken.class));
+    }
+}
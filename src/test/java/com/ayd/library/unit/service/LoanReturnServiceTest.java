@@ -0,0 +1,178 @@
+package com.ayd.library.unit.service;
+
+import com.ayd.library.dto.LoanReturnItemDto;
+import com.ayd.library.dto.LoanReturnRequestDto;
+import com.ayd.library.dto.LoanReturnResultDto;
+import com.ayd.library.enums.InventoryState;
+import com.ayd.library.exception.InvalidRequestException;
+import com.ayd.library.model.Book;
+import com.ayd.library.model.Loan;
+import com.ayd.library.model.Student;
+import com.ayd.library.repository.LoanRepository;
+import com.ayd.library.service.ActiveLoanLimiter;
+import com.ayd.library.service.CatalogVersion;
+import com.ayd.library.service.InventoryService;
+import com.ayd.library.service.LoanReturnService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class LoanReturnServiceTest {
+
+    @Mock
+    private LoanRepository loanRepository;
+
+    @Mock
+    private InventoryService inventoryService;
+
+    @Mock
+    private ActiveLoanLimiter loanLimiter;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private LoanReturnService loanReturnService;
+
+    @BeforeEach
+    public void setUp() {
+        loanReturnService = new LoanReturnService(loanRepository, inventoryService, loanLimiter, new CatalogVersion(),
+                transactionTemplate, new ObjectMapper(), 2);
+    }
+
+    @Test
+    public void testReturnLoansClosesEachChunkWithOneUpdate() throws InvalidRequestException {
+        // Arrange
+        inTransaction();
+        when(loanRepository.findAllForReturn(List.of(1L, 2L))).thenReturn(List.of(
+                loan(1L, "B1", "S1", "active", InventoryState.APPLIED),
+                loan(2L, "B1", "S2", "active", InventoryState.CHECKOUT_PENDING)));
+        when(loanRepository.findAllForReturn(List.of(3L))).thenReturn(List.of(
+                loan(3L, "B2", "S1", "active", InventoryState.UNTRACKED)));
+        when(loanRepository.findActiveForReturn(Set.of("B3"))).thenReturn(List.of(
+                loan(4L, "B3", "S1", "active", InventoryState.APPLIED)));
+
+        // Act
+        LoanReturnResultDto result = loanReturnService.returnLoans(new LoanReturnRequestDto(List.of(1L, 2L, 3L), List.of("B3")));
+
+        // Assert
+        assertEquals(4, result.items());
+        assertEquals(4, result.returned());
+        assertEquals(0, result.failed());
+        assertEquals(List.of(1L, 2L, 3L, 4L), result.results().stream().map(LoanReturnItemDto::loanId).toList());
+        verify(loanRepository).markAllReturned(List.of(1L, 2L));
+        verify(loanRepository).markAllReturned(List.of(3L, 4L));
+        verify(inventoryService).checkin("B1", 2);
+        verify(inventoryService, never()).checkin(eq("B2"), anyInt());
+        verify(inventoryService).checkin("B3", 1);
+        verify(loanLimiter).release("S1", 1);
+        verify(loanLimiter).release("S2", 1);
+        verify(loanLimiter).release("S1", 2);
+    }
+
+    @Test
+    public void testBookCodesCloseOldestActiveLoansNotNamedById() throws InvalidRequestException {
+        // Arrange
+        loanReturnService = new LoanReturnService(loanRepository, inventoryService, loanLimiter, new CatalogVersion(),
+                transactionTemplate, new ObjectMapper(), 10);
+        inTransaction();
+        Loan oldest = loan(1L, "B1", "S1", "active", InventoryState.APPLIED);
+        when(loanRepository.findAllForReturn(List.of(1L))).thenReturn(List.of(oldest));
+        when(loanRepository.findActiveForReturn(Set.of("B1"))).thenReturn(List.of(
+                oldest,
+                loan(2L, "B1", "S2", "active", InventoryState.APPLIED)));
+
+        // Act
+        LoanReturnResultDto result = loanReturnService.returnLoans(new LoanReturnRequestDto(List.of(1L), List.of("B1", "B1")));
+
+        // Assert
+        assertEquals(2, result.returned());
+        assertEquals(new LoanReturnItemDto(2L, "B1", null), result.results().get(1));
+        assertEquals("No hay prestamos activos del libro", result.results().get(2).error());
+        verify(loanRepository).markAllReturned(List.of(1L, 2L));
+        verify(inventoryService).checkin("B1", 2);
+    }
+
+    @Test
+    public void testBookCodesMatchIgnoringCase() throws InvalidRequestException {
+        // Arrange
+        inTransaction();
+        when(loanRepository.findActiveForReturn(Set.of("b1"))).thenReturn(List.of(
+                loan(1L, "B1", "S1", "active", InventoryState.APPLIED)));
+
+        // Act
+        LoanReturnResultDto result = loanReturnService.returnLoans(new LoanReturnRequestDto(null, List.of("b1")));
+
+        // Assert
+        assertEquals(1, result.returned());
+        assertEquals(1L, result.results().get(0).loanId());
+        verify(loanRepository).markAllReturned(List.of(1L));
+        verify(inventoryService).checkin("B1", 1);
+    }
+
+    @Test
+    public void testFailedItemsDoNotRejectTheOthers() throws Exception {
+        // Arrange
+        inTransaction();
+        when(loanRepository.findAllForReturn(List.of(1L, 9L))).thenReturn(List.of(
+                loan(1L, "B1", "S1", "returned", InventoryState.APPLIED)));
+        when(loanRepository.findAllForReturn(List.of(2L))).thenReturn(List.of(
+                loan(2L, "B2", "S1", "active", InventoryState.APPLIED)));
+        String body = """
+                {"loanId": 1}
+                {"loanId": 9}
+                no es json
+                {"loanId": 2}
+                """;
+
+        // Act
+        LoanReturnResultDto result = loanReturnService.returnLoans(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+
+        // Assert
+        assertEquals(4, result.items());
+        assertEquals(1, result.returned());
+        assertEquals(3, result.failed());
+        assertEquals("El prestamo no esta activo", result.results().get(0).error());
+        assertEquals("No se encuentra el prestamo", result.results().get(1).error());
+        assertTrue(result.results().get(2).error().startsWith("Linea 3"));
+        verify(loanRepository, times(1)).markAllReturned(anyCollection());
+        verify(loanRepository).markAllReturned(List.of(2L));
+        verify(inventoryService).checkin("B2", 1);
+    }
+
+    @Test
+    public void testEmptyRequestIsRejected() {
+        // Act & Assert
+        assertThrows(InvalidRequestException.class, () -> loanReturnService.returnLoans(new LoanReturnRequestDto(null, List.of())));
+        verifyNoInteractions(loanRepository);
+    }
+
+    private void inTransaction() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<List<LoanReturnItemDto>>>getArgument(0).doInTransaction(null));
+    }
+
+    private static Loan loan(Long id, String bookCode, String carnet, String status, InventoryState state) {
+        return Loan.builder()
+                .id(id)
+                .bookCode(Book.builder().code(bookCode).build())
+                .student(Student.builder().carnet(carnet).build())
+                .status(status)
+                .inventoryState(state)
+                .build();
+    }
+}
@@ -1,27 +1,42 @@
 package com.ayd.library.unit.service;
 
+import com.ayd.library.dto.LoanBatchRequestDto;
+import com.ayd.library.dto.LoanBatchResultDto;
+import com.ayd.library.dto.LoanPageDto;
 import com.ayd.library.dto.LoanRequestDto;
 import com.ayd.library.dto.LoanResponseDto;
+import com.ayd.library.enums.InventoryState;
 import com.ayd.library.enums.LoanStatus;
 import com.ayd.library.exception.*;
 import com.ayd.library.model.Book;
 import com.ayd.library.model.Loan;
 import com.ayd.library.model.Student;
 import com.ayd.library.repository.LoanRepository;
+import com.ayd.library.service.ActiveLoanLimiter;
 import com.ayd.library.service.BookService;
+import com.ayd.library.service.CatalogVersion;
+import com.ayd.library.service.InventoryService;
 import com.ayd.library.service.LoanService;
 import com.ayd.library.service.StudentService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -39,6 +54,18 @@ public class LoanServiceTest {
     @Mock
     private BookService bookService;
 
+    @Mock
+    private InventoryService inventoryService;
+
+    @Mock
+    private CatalogVersion catalogVersion;
+
+    @Mock
+    private ActiveLoanLimiter loanLimiter;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
     @InjectMocks
     private LoanService loanService;
 
@@ -77,14 +104,18 @@ public class LoanServiceTest {
                 .totalDue(BigDecimal.valueOf(100))
                 .status(LoanStatus.ACTIVE.name())
                 .build();
+
+        ReflectionTestUtils.setField(loanService, "defaultPageSize", 2);
+        ReflectionTestUtils.setField(loanService, "maxPageSize", 10);
+        ReflectionTestUtils.setField(loanService, "maxBatchBooks", 3);
     }
 
     @Test
-    public void testCreateLoan() throws DuplicatedEntityException, NotFoundException, QuantityException, RequiredEntityException, EnoughException {
+    public void testCreateLoan() throws DuplicatedEntityException, NotFoundException, QuantityException, RequiredEntityException, EnoughException, LoanLimitException {
         // Arrange
         when(loanRepository.findById(loanRequestDto.getId())).thenReturn(Optional.empty());
         when(studentService.getStudentByCarnet(loanRequestDto.getCarnet())).thenReturn(student);
-        when(bookService.getBookByCode(loanRequestDto.getBookCode())).thenReturn(book);
+        when(bookService.getBookReference(loanRequestDto.getBookCode())).thenReturn(book);
         when(loanRepository.save(any(Loan.class))).thenReturn(loan);
 
         // Act
@@ -94,7 +125,8 @@ public class LoanServiceTest {
         assertNotNull(createdLoan);
         assertEquals(loanRequestDto.getId(), createdLoan.getId());
         verify(loanRepository, times(1)).findById(loanRequestDto.getId());
-        verify(loanRepository, times(1)).save(any(Loan.class));
+        verify(loanRepository, times(1)).save(argThat(saved -> saved.getInventoryState() == InventoryState.CHECKOUT_PENDING));
+        verify(inventoryService, times(1)).checkout(book.getCode());
     }
 
     @Test
@@ -102,7 +134,7 @@ public class LoanServiceTest {
         // Arrange
         when(loanRepository.findById(loanRequestDto.getId())).thenReturn(Optional.of(loan));
         when(studentService.getStudentByCarnet(loanRequestDto.getCarnet())).thenReturn(student);
-        when(bookService.getBookByCode(loanRequestDto.getBookCode())).thenReturn(book);
+        when(bookService.getBookReference(loanRequestDto.getBookCode())).thenReturn(book);
 
         // Act & Assert
         assertThrows(DuplicatedEntityException.class, () -> loanService.createLoan(loanRequestDto));
@@ -133,18 +165,141 @@ public class LoanServiceTest {
     }
 
     @Test
-    public void testCreateLoan_EnoughException() throws NotFoundException {
+    public void testCreateLoan_EnoughException() throws NotFoundException, EnoughException {
         // Arrange
-        book.setAvailableCopies(0);
+        when(loanRepository.findById(loanRequestDto.getId())).thenReturn(Optional.empty());
         when(studentService.getStudentByCarnet(loanRequestDto.getCarnet())).thenReturn(student);
-        when(bookService.getBookByCode(loanRequestDto.getBookCode())).thenReturn(book);
+        when(bookService.getBookReference(loanRequestDto.getBookCode())).thenReturn(book);
+        doThrow(new EnoughException("Enough available copies")).when(inventoryService).checkout(book.getCode());
 
         // Act & Assert
         assertThrows(EnoughException.class, () -> loanService.createLoan(loanRequestDto));
-        verify(loanRepository, times(0)).findById(anyLong());
         verify(loanRepository, times(0)).save(any(Loan.class));
     }
 
+    @Test
+    public void testCreateLoan_LoanLimitException() throws NotFoundException, LoanLimitException {
+        // Arrange
+        when(loanRepository.findById(loanRequestDto.getId())).thenReturn(Optional.empty());
+        when(studentService.getStudentByCarnet(loanRequestDto.getCarnet())).thenReturn(student);
+        when(bookService.getBookReference(loanRequestDto.getBookCode())).thenReturn(book);
+        doThrow(new LoanLimitException("Limite")).when(loanLimiter).acquire(student.getCarnet());
+
+        // Act & Assert
+        assertThrows(LoanLimitException.class, () -> loanService.createLoan(loanRequestDto));
+        verifyNoInteractions(inventoryService);
+        verify(loanRepository, times(0)).save(any(Loan.class));
+    }
+
+    @Test
+    public void testCreateLoans() throws ServiceException {
+        // Arrange
+        Book other = Book.builder().code("BK100").title("Other Book").build();
+        when(studentService.getStudentByCarnet("123456")).thenReturn(student);
+        when(bookService.getBookReferences(List.of("BK101", "BK100"))).thenReturn(Map.of("BK101", book, "BK100", other));
+        when(jdbcTemplate.execute(ArgumentMatchers.<ConnectionCallback<List<Long>>>any())).thenReturn(List.of(11L, 12L));
+
+        // Act
+        LoanBatchResultDto result = loanService.createLoans(new LoanBatchRequestDto("123456", List.of("BK101", "BK100"),
+                LocalDate.now(), LocalDate.now().plusDays(7), null));
+
+        // Assert
+        assertTrue(result.created());
+        assertEquals(11L, result.items().get(0).loanId());
+        assertEquals("BK100", result.items().get(1).bookCode());
+        assertEquals(12L, result.items().get(1).loanId());
+        verify(loanLimiter, times(1)).acquire("123456", 2);
+        InOrder inOrder = inOrder(inventoryService);
+        inOrder.verify(inventoryService).checkout("BK100");
+        inOrder.verify(inventoryService).checkout("BK101");
+        verify(catalogVersion, times(1)).bump();
+        verify(loanRepository, never()).save(any(Loan.class));
+    }
+
+    @Test
+    public void testCreateLoans_ReportsEveryFailedBook() throws ServiceException {
+        // Arrange
+        when(studentService.getStudentByCarnet("123456")).thenReturn(student);
+        when(bookService.getBookReferences(List.of("BK101", "BK404", "BK101"))).thenReturn(Map.of("BK101", book));
+
+        // Act
+        LoanBatchException thrown = assertThrows(LoanBatchException.class, () -> loanService.createLoans(
+                new LoanBatchRequestDto("123456", List.of("BK101", "BK404", "BK101"), null, null, null)));
+
+        // Assert
+        LoanBatchResultDto result = thrown.getResult();
+        assertFalse(result.created());
+        assertNull(result.items().get(0).error());
+        assertNotNull(result.items().get(1).error());
+        assertNotNull(result.items().get(2).error());
+        verifyNoInteractions(loanLimiter, inventoryService, jdbcTemplate);
+    }
+
+    @Test
+    public void testCreateLoans_CodesDifferingInCaseAreRepeated() throws ServiceException {
+        // Arrange
+        Map<String, Book> books = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        books.put("BK101", book);
+        when(studentService.getStudentByCarnet("123456")).thenReturn(student);
+        when(bookService.getBookReferences(List.of("bk101", "BK101"))).thenReturn(books);
+
+        // Act
+        LoanBatchException thrown = assertThrows(LoanBatchException.class, () -> loanService.createLoans(
+                new LoanBatchRequestDto("123456", List.of("bk101", "BK101"), null, null, null)));
+
+        // Assert
+        assertNull(thrown.getResult().items().get(0).error());
+        assertEquals("Libro repetido en la solicitud", thrown.getResult().items().get(1).error());
+        verifyNoInteractions(loanLimiter, inventoryService, jdbcTemplate);
+    }
+
+    @Test
+    public void testCreateLoans_UsesStoredCodes() throws ServiceException {
+        // Arrange
+        Map<String, Book> books = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        books.put("BK101", book);
+        when(studentService.getStudentByCarnet("123456")).thenReturn(student);
+        when(bookService.getBookReferences(List.of("bk101"))).thenReturn(books);
+        when(jdbcTemplate.execute(ArgumentMatchers.<ConnectionCallback<List<Long>>>any())).thenReturn(List.of(11L));
+
+        // Act
+        loanService.createLoans(new LoanBatchRequestDto("123456", List.of("bk101"), null, null, null));
+
+        // Assert
+        verify(inventoryService).checkout("BK101");
+    }
+
+    @Test
+    public void testCreateLoans_NoCopiesRollsBackAll() throws ServiceException {
+        // Arrange
+        Book other = Book.builder().code("BK100").title("Other Book").build();
+        when(studentService.getStudentByCarnet("123456")).thenReturn(student);
+        when(bookService.getBookReferences(List.of("BK101", "BK100"))).thenReturn(Map.of("BK101", book, "BK100", other));
+        lenient().doThrow(new EnoughException("Enough available copies")).when(inventoryService).checkout("BK101");
+
+        // Act
+        LoanBatchException thrown = assertThrows(LoanBatchException.class, () -> loanService.createLoans(
+                new LoanBatchRequestDto("123456", List.of("BK101", "BK100"), null, null, null)));
+
+        // Assert
+        assertNotNull(thrown.getResult().items().get(0).error());
+        assertNull(thrown.getResult().items().get(1).error());
+        verify(inventoryService, times(1)).checkout("BK100");
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    public void testCreateLoans_InvalidRequest() {
+        // Act & Assert
+        assertThrows(InvalidRequestException.class, () -> loanService.createLoans(
+                new LoanBatchRequestDto("123456", List.of(), null, null, null)));
+        assertThrows(InvalidRequestException.class, () -> loanService.createLoans(
+                new LoanBatchRequestDto("123456", List.of("A", "B", "C", "D"), null, null, null)));
+        assertThrows(InvalidRequestException.class, () -> loanService.createLoans(
+                new LoanBatchRequestDto("123456", List.of("A"), null, null, BigDecimal.valueOf(-1))));
+        verifyNoInteractions(studentService, bookService);
+    }
+
     @Test
     public void testUpdateLoan() throws NotFoundException {
         // Arrange
@@ -218,6 +373,41 @@ public class LoanServiceTest {
         verify(loanRepository, times(1)).findLoanDetails();
     }
 
+    @Test
+    public void testGetLoanPage_ContinuesAfterCursor() throws InvalidRequestException {
+        // Arrange
+        LocalDate today = LocalDate.of(2024, 5, 20);
+        LocalDate from = today.minusDays(30);
+        when(loanRepository.findPage("active", from, today, "123456", null, null, null, 3))
+                .thenReturn(new ArrayList<>(List.of(summary(9L, today), summary(7L, today), summary(8L, today.minusDays(1)))));
+        when(loanRepository.findPage("active", from, today, "123456", null, today, 7L, 3))
+                .thenReturn(new ArrayList<>(List.of(summary(8L, today.minusDays(1)))));
+
+        // Act
+        LoanPageDto first = loanService.getLoanPage(null, "ACTIVE", from, today, "123456", null, null);
+        LoanPageDto second = loanService.getLoanPage(first.next(), "ACTIVE", from, today, "123456", null, null);
+
+        // Assert
+        assertEquals(2, first.items().size());
+        assertNotNull(first.next());
+        assertEquals(1, second.items().size());
+        assertEquals(8L, second.items().get(0).getId());
+        assertNull(second.next());
+    }
+
+    @Test
+    public void testGetLoanPage_InvalidParameters() {
+        // Arrange
+        LocalDate today = LocalDate.now();
+
+        // Act & Assert
+        assertThrows(InvalidRequestException.class, () -> loanService.getLoanPage(null, null, null, null, null, null, 11));
+        assertThrows(InvalidRequestException.class, () -> loanService.getLoanPage(null, "late", null, null, null, null, null));
+        assertThrows(InvalidRequestException.class, () -> loanService.getLoanPage(null, null, today, today.minusDays(1), null, null, null));
+        assertThrows(InvalidRequestException.class, () -> loanService.getLoanPage("not-a-cursor", null, null, null, null, null, null));
+        verifyNoInteractions(loanRepository);
+    }
+
     @Test
     public void testCloseLoan() throws NotFoundException {
         // Arrange
@@ -234,6 +424,37 @@ public class LoanServiceTest {
         verify(loanRepository, times(1)).save(any(Loan.class));
     }
 
+    @Test
+    public void testCloseLoan_ReturnsCopyOnce() throws NotFoundException {
+        // Arrange
+        loan.setInventoryState(InventoryState.APPLIED);
+        when(loanRepository.findById(loan.getId())).thenReturn(Optional.of(loan));
+        when(loanRepository.markReturned(loan.getId())).thenReturn(1).thenReturn(0);
+        when(loanRepository.save(any(Loan.class))).thenReturn(loan);
+
+        // Act
+        loanService.closeLoan(loan.getId());
+        loanService.closeLoan(loan.getId());
+
+        // Assert
+        verify(inventoryService, times(1)).checkin(book.getCode());
+        verify(loanLimiter, times(1)).release(student.getCarnet());
+    }
+
+    @Test
+    public void testCloseLoan_UntrackedLoanKeepsInventory() throws NotFoundException {
+        // Arrange
+        when(loanRepository.findById(loan.getId())).thenReturn(Optional.of(loan));
+        when(loanRepository.markReturned(loan.getId())).thenReturn(1);
+        when(loanRepository.save(any(Loan.class))).thenReturn(loan);
+
+        // Act
+        loanService.closeLoan(loan.getId());
+
+        // Assert
+        verifyNoInteractions(inventoryService);
+    }
+
     @Test
     public void testCloseLoan_NotFoundException() {
         // Arrange
@@ -260,4 +481,8 @@ public class LoanServiceTest {
         assertEquals(1, result.size());
         verify(loanRepository, times(1)).findAllByStatus(LoanStatus.ACTIVE.name());
     }
+
+    private static LoanResponseDto summary(Long id, LocalDate loanDate) {
+        return new LoanResponseDto(id, "123456", "Test Book", loanDate, loanDate.plusDays(14), "active", BigDecimal.ZERO);
+    }
 }
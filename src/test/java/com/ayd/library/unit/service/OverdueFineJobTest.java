@@ -0,0 +1,91 @@
+package com.ayd.library.unit.service;
+
+import com.ayd.library.dto.OverdueLoanDto;
+import com.ayd.library.repository.LoanRepository;
+import com.ayd.library.service.CatalogVersion;
+import com.ayd.library.service.FinePolicy;
+import com.ayd.library.service.OverdueFineJob;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class OverdueFineJobTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2024, 5, 20);
+
+    @Mock
+    private LoanRepository loanRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private CatalogVersion catalogVersion;
+
+    private SimpleMeterRegistry meterRegistry;
+    private OverdueFineJob job;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        FinePolicy policy = new FinePolicy(new BigDecimal("1.00"), 0, BigDecimal.ZERO);
+        job = new OverdueFineJob(loanRepository, transactionTemplate, policy, catalogVersion, 3, meterRegistry);
+    }
+
+    @Test
+    public void testRunWalksChunksAndUpdatesPerFine() {
+        // Arrange
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<Integer>>getArgument(0).doInTransaction(null));
+        LocalDate dueFiveDaysAgo = TODAY.minusDays(5);
+        LocalDate dueTwoDaysAgo = TODAY.minusDays(2);
+        when(loanRepository.findOverdue(eq(TODAY), any()))
+                .thenReturn(List.of(new OverdueLoanDto(4L, dueFiveDaysAgo), new OverdueLoanDto(9L, dueFiveDaysAgo),
+                        new OverdueLoanDto(2L, dueTwoDaysAgo)));
+        when(loanRepository.findOverdueAfter(eq(TODAY), eq(dueTwoDaysAgo), eq(2L), any()))
+                .thenReturn(List.of(new OverdueLoanDto(7L, dueTwoDaysAgo)));
+        when(loanRepository.updateFine(List.of(4L, 9L), new BigDecimal("5.00"))).thenReturn(2);
+        when(loanRepository.updateFine(List.of(2L), new BigDecimal("2.00"))).thenReturn(0);
+        when(loanRepository.updateFine(List.of(7L), new BigDecimal("2.00"))).thenReturn(1);
+
+        // Act
+        int changed = job.run(TODAY);
+
+        // Assert
+        assertEquals(3, changed);
+        verify(loanRepository, times(3)).updateFine(any(), any());
+        verify(catalogVersion, times(2)).bump();
+        assertEquals(4.0, meterRegistry.get("loans.fines.scanned").counter().count());
+        assertEquals(3.0, meterRegistry.get("loans.fines.updated").counter().count());
+        assertEquals(4.0, meterRegistry.get("loans.fines.progress").gauge().value());
+    }
+
+    @Test
+    public void testRunWithoutOverdueLoans() {
+        // Arrange
+        when(loanRepository.findOverdue(eq(TODAY), any())).thenReturn(List.of());
+
+        // Act
+        int changed = job.run(TODAY);
+
+        // Assert
+        assertEquals(0, changed);
+        verifyNoInteractions(transactionTemplate);
+        verify(loanRepository, never()).findOverdueAfter(any(), any(), any(), any());
+    }
+}
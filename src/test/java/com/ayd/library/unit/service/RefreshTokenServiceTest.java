@@ -0,0 +1,126 @@
+package com.ayd.library.unit.service;
+
+import com.ayd.library.dto.user.AuthTokensDto;
+import com.ayd.library.enums.Rol;
+import com.ayd.library.exception.InvalidTokenException;
+import com.ayd.library.exception.ServiceException;
+import com.ayd.library.model.RefreshToken;
+import com.ayd.library.model.User;
+import com.ayd.library.repository.RefreshTokenRepository;
+import com.ayd.library.repository.UserRepository;
+import com.ayd.library.service.JwtService;
+import com.ayd.library.service.RefreshTokenService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class RefreshTokenServiceTest {
+
+    @Mock
+    private RefreshTokenRepository repository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private JwtService jwtService;
+
+    @InjectMocks
+    private RefreshTokenService refreshTokenService;
+
+    private User user;
+    private String raw;
+
+    @BeforeEach
+    public void setUp() {
+        ReflectionTestUtils.setField(refreshTokenService, "refreshValidDays", 14L);
+        user = User.builder()
+                .userId(1L)
+                .username("student")
+                .role(Rol.STUDENT)
+                .status((short) 1)
+                .build();
+    }
+
+    private RefreshToken storedToken() {
+        raw = refreshTokenService.issue(user);
+        var captor = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(repository).save(captor.capture());
+        var stored = captor.getValue();
+        when(repository.findByTokenHash(stored.getTokenHash())).thenReturn(Optional.of(stored));
+        return stored;
+    }
+
+    @Test
+    public void testRotate() throws ServiceException, IOException {
+        // Arrange
+        RefreshToken stored = storedToken();
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(jwtService.generateToken(user)).thenReturn("access");
+
+        // Act
+        AuthTokensDto tokens = refreshTokenService.rotate(raw);
+
+        // Assert
+        assertEquals("access", tokens.accessToken());
+        assertNotEquals(raw, tokens.refreshToken());
+        assertTrue(stored.getUsed());
+        verify(repository, times(3)).save(any(RefreshToken.class));
+        verify(repository, times(0)).revokeFamily(anyString());
+    }
+
+    @Test
+    public void testRotate_ReuseRevokesFamily() throws IOException {
+        // Arrange
+        RefreshToken stored = storedToken();
+        stored.setUsed(true);
+
+        // Act & Assert
+        assertThrows(InvalidTokenException.class, () -> refreshTokenService.rotate(raw));
+        verify(repository, times(1)).revokeFamily(stored.getFamilyId());
+        verify(jwtService, times(0)).generateToken(any(User.class));
+    }
+
+    @Test
+    public void testRotate_ExpiredToken() throws IOException {
+        // Arrange
+        RefreshToken stored = storedToken();
+        stored.setExpiresAt(System.currentTimeMillis() - 1);
+
+        // Act & Assert
+        assertThrows(InvalidTokenException.class, () -> refreshTokenService.rotate(raw));
+        verify(jwtService, times(0)).generateToken(any(User.class));
+    }
+
+    @Test
+    public void testRevokeAllForUser() {
+        // Act
+        refreshTokenService.revokeAllForUser(user.getUserId());
+
+        // Assert
+        verify(repository, times(1)).revokeAllForUser(user.getUserId());
+    }
+
+    @Test
+    public void testRotate_UnknownToken() {
+        // Arrange
+        when(repository.findByTokenHash(anyString())).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(InvalidTokenException.class, () -> refreshTokenService.rotate("unknown"));
+    }
+}
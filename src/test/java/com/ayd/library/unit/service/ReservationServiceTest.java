@@ -11,6 +11,8 @@ import com.ayd.library.model.Reservation;
 import com.ayd.library.model.Student;
 import com.ayd.library.repository.ReservationRepository;
 import com.ayd.library.service.BookService;
+import com.ayd.library.service.CatalogVersion;
+import com.ayd.library.service.InventoryService;
 import com.ayd.library.service.ReservationService;
 import com.ayd.library.service.StudentService;
 import org.junit.jupiter.api.BeforeEach;
@@ -39,6 +41,12 @@ public class ReservationServiceTest {
     @Mock
     private BookService bookService;
 
+    @Mock
+    private InventoryService inventoryService;
+
+    @Mock
+    private CatalogVersion catalogVersion;
+
     @InjectMocks
     private ReservationService reservationService;
 
@@ -75,7 +83,8 @@ public class ReservationServiceTest {
     @Test
     public void testCreateReservation() throws DuplicatedEntityException, NotFoundException, RequiredEntityException, EnoughException {
         when(studentService.getStudentByCarnet(anyString())).thenReturn(student);
-        when(bookService.getBookByCode(anyString())).thenReturn(book);
+        when(bookService.getBookReference(anyString())).thenReturn(book);
+        when(inventoryService.available("B001")).thenReturn(5);
         when(reservationRepository.save(any(Reservation.class))).thenReturn(reservation);
 
         Reservation createdReservation = reservationService.createReservation(reservationRequestDto);
@@ -98,8 +107,8 @@ public class ReservationServiceTest {
 
     @Test
     public void testCreateReservation_NotEnoughCopies() throws NotFoundException {
-        book.setAvailableCopies(0);
-        when(bookService.getBookByCode(anyString())).thenReturn(book);
+        when(bookService.getBookReference(anyString())).thenReturn(book);
+        when(inventoryService.available("B001")).thenReturn(0);
 
         EnoughException exception = assertThrows(EnoughException.class, () ->
                 reservationService.createReservation(reservationRequestDto));
@@ -0,0 +1,136 @@
+package com.ayd.library.unit.service;
+
+import com.ayd.library.dto.user.UserSecurityStampDto;
+import com.ayd.library.enums.Rol;
+import com.ayd.library.model.User;
+import com.ayd.library.model.UserInfoDetails;
+import com.ayd.library.repository.UserRepository;
+import com.ayd.library.service.UserService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class UserServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private UserService userService;
+
+    private Claims claims;
+
+    @BeforeEach
+    public void setUp() {
+        userService = new UserService(userRepository, new BCryptPasswordEncoder(4), 30, 100, 300, new SimpleMeterRegistry());
+
+        claims = Jwts.claims();
+        claims.setSubject("student");
+        claims.put("id", 3);
+        claims.put("rol", Rol.STUDENT.name());
+        claims.put("ver", 0);
+    }
+
+    @Test
+    public void testPrincipalFromClaims() {
+        // Arrange
+        when(userRepository.findSecurityStampByUserId(3L)).thenReturn(Optional.of(new UserSecurityStampDto((short) 1, 0)));
+
+        // Act
+        UserInfoDetails first = userService.principalFromClaims(claims);
+        UserInfoDetails second = userService.principalFromClaims(claims);
+
+        // Assert
+        assertNotNull(first);
+        assertEquals("student", first.getUsername());
+        assertEquals(3L, first.getUserId());
+        assertEquals(Rol.STUDENT, second.getRol());
+        verify(userRepository, times(1)).findSecurityStampByUserId(3L);
+    }
+
+    @Test
+    public void testPrincipalFromClaims_StaleVersion() {
+        // Arrange
+        when(userRepository.findSecurityStampByUserId(3L)).thenReturn(Optional.of(new UserSecurityStampDto((short) 1, 1)));
+
+        // Act & Assert
+        assertNull(userService.principalFromClaims(claims));
+    }
+
+    @Test
+    public void testPrincipalFromClaims_DisabledUser() {
+        // Arrange
+        when(userRepository.findSecurityStampByUserId(3L)).thenReturn(Optional.of(new UserSecurityStampDto((short) 0, 0)));
+
+        // Act & Assert
+        assertNull(userService.principalFromClaims(claims));
+    }
+
+    @Test
+    public void testEvictSecurityStamp() {
+        // Arrange
+        when(userRepository.findSecurityStampByUserId(3L))
+                .thenReturn(Optional.of(new UserSecurityStampDto((short) 1, 0)))
+                .thenReturn(Optional.of(new UserSecurityStampDto((short) 1, 1)));
+        assertNotNull(userService.principalFromClaims(claims));
+
+        // Act
+        userService.evictSecurityStamp(3L);
+
+        // Assert
+        assertNull(userService.principalFromClaims(claims));
+        verify(userRepository, times(2)).findSecurityStampByUserId(3L);
+    }
+
+    @Test
+    public void testUserDetailsAreCached() {
+        // Arrange
+        User user = User.builder().userId(3L).username("student").password("hash").role(Rol.STUDENT).status((short) 1).build();
+        when(userRepository.findByUsername("student")).thenReturn(Optional.of(user));
+
+        // Act
+        UserDetails first = userService.userDetailsService().loadUserByUsername("student");
+        UserDetails second = userService.userDetailsService().loadUserByUsername("student");
+
+        // Assert
+        assertSame(first, second);
+        verify(userRepository, times(1)).findByUsername("student");
+    }
+
+    @Test
+    public void testEvictUserReloadsDetails() {
+        // Arrange
+        User user = User.builder().userId(3L).username("student").password("hash").role(Rol.STUDENT).status((short) 1).build();
+        when(userRepository.findByUsername("student")).thenReturn(Optional.of(user));
+        userService.userDetailsService().loadUserByUsername("student");
+
+        // Act
+        userService.evictUser(user);
+        userService.userDetailsService().loadUserByUsername("student");
+
+        // Assert
+        verify(userRepository, times(2)).findByUsername("student");
+    }
+
+    @Test
+    public void testUserDetails_NotFound() {
+        // Arrange
+        when(userRepository.findByUsername("ghost")).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(UsernameNotFoundException.class, () -> userService.userDetailsService().loadUserByUsername("ghost"));
+    }
+}